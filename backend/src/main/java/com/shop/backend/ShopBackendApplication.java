@@ -2,6 +2,7 @@ package com.shop.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the E-commerce Shop Backend
@@ -11,8 +12,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - Spring Boot auto-configuration
  * - Component scanning for all packages under com.shop.backend
  * - JPA repository scanning
+ * - Scheduled background jobs (recommendation batch, product tombstone purge, upload sweep)
  */
 @SpringBootApplication
+@EnableScheduling
 public class ShopBackendApplication {
 
     /**
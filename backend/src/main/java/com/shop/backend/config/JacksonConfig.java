@@ -0,0 +1,27 @@
+package com.shop.backend.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson configuration
+ *
+ * Features:
+ * - Default filter provider for the sparse fieldset filters on ProductDto and OrderDto (see SparseFields):
+ *   responses without fields= write every property
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Register an empty filter provider that tolerates unknown filter IDs
+     *
+     * @return ObjectMapper builder customizer
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
@@ -3,6 +3,8 @@ package com.shop.backend.config;
 import com.shop.backend.security.JwtAuthenticationFilter;
 import com.shop.backend.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,15 +14,17 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Arrays;
@@ -35,6 +39,7 @@ import java.util.Arrays;
  * - CORS configuration
  * - Password encoding
  * - Session management
+ * - Uploaded images (/uploads) served without going through security
  */
 @Configuration
 @EnableWebSecurity
@@ -46,6 +51,9 @@ public class SecurityConfig implements WebMvcConfigurer {
     private final PasswordEncoder passwordEncoder;
     private final JwtAuthenticationFilter jwtAuthFilter;
 
+    @Value("${app.async-request-timeout-ms:1800000}")
+    private long asyncRequestTimeoutMs;
+
     /**
      * Configure security filter chain
      * 
@@ -81,6 +89,32 @@ public class SecurityConfig implements WebMvcConfigurer {
         return http.build();
     }
 
+    /**
+     * Skip the security filter chain for uploaded images
+     * They are public, and authenticating every image request would only cost time.
+     *
+     * @return WebSecurityCustomizer
+     */
+    @Bean
+    public WebSecurityCustomizer uploadsSecurityCustomizer() {
+        // Explicit matcher: /uploads/* belongs to its own servlet, not to Spring MVC (see UploadConfig)
+        return web -> web.ignoring().requestMatchers(AntPathRequestMatcher.antMatcher("/uploads/**"));
+    }
+
+    /**
+     * Keep the JWT filter out of the servlet filter chain
+     * As a bean it would also be registered for every URL by Spring Boot; it only belongs in the
+     * security filter chain.
+     *
+     * @return Disabled registration
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     /**
      * Configure authentication provider
      * 
@@ -119,7 +153,7 @@ public class SecurityConfig implements WebMvcConfigurer {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         
         // Allow common HTTP methods
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         
         // Allow common headers
         configuration.setAllowedHeaders(Arrays.asList("*"));
@@ -135,11 +169,11 @@ public class SecurityConfig implements WebMvcConfigurer {
     }
 
     /**
-     * Expose /uploads as a public static resource
+     * Timeout for streamed responses (catalog export)
+     * The container default (30 seconds on Tomcat) would cut off large exports.
      */
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
     }
-} 
\ No newline at end of file
+}
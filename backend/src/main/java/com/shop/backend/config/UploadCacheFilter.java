@@ -0,0 +1,57 @@
+package com.shop.backend.config;
+
+import com.shop.backend.service.ImageStorageService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Cache headers for uploaded images (registered on /uploads/* by UploadConfig)
+ *
+ * Features:
+ * - Content-addressed names (SHA-256, and the resized copies named after it) never change content:
+ *   cached for a year with Cache-Control immutable, so browsers do not even revalidate
+ * - Other uploads (older random names): one day, then revalidated with ETag / Last-Modified
+ * - Missing files and hidden temporary files get no caching headers (404 from the servlet)
+ */
+public class UploadCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern HASHED_NAME = Pattern.compile("[0-9a-f]{64}(-[a-z0-9]+)?\\.[a-z]+");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, max-age=86400";
+
+    private final ImageStorageService imageStorage;
+
+    public UploadCacheFilter(ImageStorageService imageStorage) {
+        this.imageStorage = imageStorage;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        Path file = imageStorage.resolve(uri);
+        if (file == null) {
+            // Hidden temporary files and nested paths are never served
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (Files.isRegularFile(file)) {
+            String filename = file.getFileName().toString();
+            response.setHeader(HttpHeaders.CACHE_CONTROL,
+                    HASHED_NAME.matcher(filename).matches() ? IMMUTABLE : REVALIDATE);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,112 @@
+package com.shop.backend.config;
+
+import com.shop.backend.service.ImageStorageService;
+import jakarta.servlet.MultipartConfigElement;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.servlets.DefaultServlet;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Upload configuration: receiving images and serving them back
+ *
+ * Features:
+ * - Upload size limit (app.uploads.max-image-bytes) enforced by the container while the request is read,
+ *   so an oversized upload is rejected with 413 before it is stored
+ * - Every part goes straight to a temporary file, never to the heap
+ * - /uploads/* served by the container's static file servlet instead of Spring MVC: byte ranges,
+ *   conditional requests (ETag / Last-Modified / 304), sendfile for large files (the request thread is
+ *   released while the file is sent) and precompressed .br / .gz siblings when present
+ * - Long-lived cache headers (see UploadCacheFilter); the security filter chain is skipped (SecurityConfig)
+ */
+@Configuration
+public class UploadConfig {
+
+    /** Room for the other form fields (product JSON) next to the image */
+    private static final long FORM_FIELDS_BYTES = 1024 * 1024;
+
+    @Value("${app.uploads.max-image-bytes:10485760}")
+    private long maxImageBytes;
+
+    public static final String UPLOADS_PATTERN = "/uploads/*";
+
+    /**
+     * Multipart settings of the embedded container (replaces spring.servlet.multipart.*)
+     *
+     * @return Multipart configuration
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement() {
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setMaxFileSize(DataSize.ofBytes(maxImageBytes));
+        factory.setMaxRequestSize(DataSize.ofBytes(maxImageBytes + FORM_FIELDS_BYTES));
+        factory.setFileSizeThreshold(DataSize.ofBytes(0));
+        return factory.createMultipartConfig();
+    }
+
+    /**
+     * Mount the uploads directory into the container's resources at /uploads
+     *
+     * @return Tomcat customizer
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> uploadsResourceCustomizer() {
+        Path dir = Paths.get(ImageStorageService.UPLOAD_DIR).toAbsolutePath();
+        return factory -> factory.addContextCustomizers(context -> context.addLifecycleListener(event -> {
+            if (Lifecycle.CONFIGURE_START_EVENT.equals(event.getType())) {
+                try {
+                    Files.createDirectories(dir);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to create uploads directory", e);
+                }
+                WebResourceRoot resources = context.getResources();
+                resources.addPreResources(new DirResourceSet(resources, "/uploads", dir.toString(), "/"));
+            }
+        }));
+    }
+
+    /**
+     * Static file servlet for uploaded images
+     *
+     * @return Servlet registration on /uploads/*
+     */
+    @Bean
+    public ServletRegistrationBean<DefaultServlet> uploadsServlet() {
+        ServletRegistrationBean<DefaultServlet> registration =
+                new ServletRegistrationBean<>(new DefaultServlet(), UPLOADS_PATTERN);
+        registration.setName("uploads");
+        registration.addInitParameter("listings", "false");
+        registration.addInitParameter("precompressed", "br=.br,gzip=.gz");
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    /**
+     * Cache headers for uploaded images
+     *
+     * @param imageStorage Image storage, to resolve requested files
+     * @return Filter registration on /uploads/*
+     */
+    @Bean
+    public FilterRegistrationBean<UploadCacheFilter> uploadCacheFilter(ImageStorageService imageStorage) {
+        FilterRegistrationBean<UploadCacheFilter> registration =
+                new FilterRegistrationBean<>(new UploadCacheFilter(imageStorage));
+        registration.addUrlPatterns(UPLOADS_PATTERN);
+        return registration;
+    }
+}
@@ -34,6 +34,24 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getSummary());
     }
 
+    /**
+     * Thống kê cache sản phẩm (hit/miss)
+     */
+    @GetMapping("/product-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getProductCacheStats() {
+        return ResponseEntity.ok(dashboardService.getProductCacheStats());
+    }
+
+    /**
+     * Thống kê dọn dẹp ảnh không còn sử dụng (dung lượng thu hồi)
+     */
+    @GetMapping("/uploads")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getUploadCleanupStats() {
+        return ResponseEntity.ok(dashboardService.getUploadCleanupStats());
+    }
+
     /**
      * Doanh thu theo ngày (7 ngày gần nhất)
      */
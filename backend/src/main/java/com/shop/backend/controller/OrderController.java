@@ -2,6 +2,7 @@ package com.shop.backend.controller;
 
 import com.shop.backend.dto.CreateOrderRequest;
 import com.shop.backend.dto.OrderDto;
+import com.shop.backend.dto.SparseFields;
 import com.shop.backend.entity.OrderStatus;
 import com.shop.backend.entity.PaymentStatus;
 import com.shop.backend.service.OrderService;
@@ -25,6 +26,7 @@ import java.util.Map;
  * Features:
  * - Order creation from cart (USER only)
  * - Order listing by user (USER, ADMIN)
+ * - Sparse fieldsets (fields=) on order listings
  * - Order details (USER, ADMIN)
  * - Order status management (ADMIN only)
  * - Role-based access control
@@ -65,22 +67,34 @@ public class OrderController {
      * @param sort Sort option (optional: orderDate,desc or orderDate,asc)
      * @param page Page number (0-based, default: 0)
      * @param size Page size (default: 10)
+     * @param cursor Keyset pagination cursor (optional: empty for the first page, then the nextCursor
+     *               of the previous response; page is ignored when set)
+     * @param fields Order properties to write (optional, e.g. id,orderDate,status,totalPrice);
+     *               only the requested columns and, with orderItems, the order items are read
      * @return Paginated orders response with metadata
      */
     @GetMapping("/my-orders")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Map<String, Object>> getMyOrders(
+    public ResponseEntity<?> getMyOrders(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false, defaultValue = "orderDate,desc") String sort,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         
-        Map<String, Object> response = orderService.getOrdersByUsernameWithFilterAndPagination(username, status, startDate, endDate, sort, page, size);
-        return ResponseEntity.ok(response);
+        try {
+            SparseFields sparseFields = SparseFields.forOrders(fields);
+            Map<String, Object> response = orderService.getOrdersByUsernameWithFilterAndPagination(username, status, startDate, endDate, sort, page, size, cursor,
+                    sparseFields);
+            return ResponseEntity.ok(sparseFields.apply(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
     }
 
     /**
@@ -109,18 +123,30 @@ public class OrderController {
      * @param status Order status filter (optional)
      * @param sort Sort option (e.g. orderDate,desc)
      * @param keyword Keyword filter (optional)
+     * @param cursor Keyset pagination cursor (optional: empty for the first page, then the nextCursor
+     *               of the previous response; page is ignored when set)
+     * @param fields Order properties to write (optional); only the requested columns and,
+     *               with orderItems, the order items are read
      * @return Paginated orders response
      */
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getAllOrders(
+    public ResponseEntity<?> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
             @RequestParam(required = false, defaultValue = "orderDate,desc") String sort,
-            @RequestParam(required = false) String keyword) {
-        Map<String, Object> response = orderService.getAllOrdersWithPagination(page, size, status, sort, keyword);
-        return ResponseEntity.ok(response);
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        try {
+            SparseFields sparseFields = SparseFields.forOrders(fields);
+            Map<String, Object> response = orderService.getAllOrdersWithPagination(page, size, status, sort, keyword, cursor,
+                    sparseFields);
+            return ResponseEntity.ok(sparseFields.apply(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
     }
 
     /**
@@ -1,18 +1,41 @@
 package com.shop.backend.controller;
 
+import com.shop.backend.dto.CatalogDictionaryDto;
+import com.shop.backend.dto.ProductBulkUpdateRequest;
 import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.ProductImportResultDto;
+import com.shop.backend.dto.ProductFacetsDto;
+import com.shop.backend.dto.SparseFields;
+import com.shop.backend.dto.SuggestionDto;
+import com.shop.backend.service.CatalogIndex;
+import com.shop.backend.service.ProductChangesService;
+import com.shop.backend.service.ProductExportService;
+import com.shop.backend.service.ProductImportService;
 import com.shop.backend.service.ProductService;
+import com.shop.backend.service.ProductUpdateService;
+import com.shop.backend.service.UploadCleanupService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for Product operations
@@ -20,9 +43,19 @@ import java.util.Optional;
  * 
  * Features:
  * - Product listing (USER, ADMIN)
+ * - Sparse fieldsets (fields=) on the listing
+ * - Facet counts for listing filters
+ * - Frequently bought together per product
+ * - Multi-get of products by ID
+ * - Delta catalog sync (changes since a token, including deletions)
+ * - Conditional GETs (ETag / Last-Modified / 304) on catalog reads
  * - Product creation (ADMIN only)
+ * - Bulk import from CSV or NDJSON (ADMIN only)
+ * - Streaming NDJSON export of the whole catalog (ADMIN only)
  * - Product updates (ADMIN only)
+ * - Partial updates (PATCH) and bulk price/stock changes (ADMIN only)
  * - Product deletion (ADMIN only)
+ * - Removal of unreferenced uploaded images (ADMIN only)
  * - Role-based access control
  */
 @RestController
@@ -32,6 +65,11 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final ProductUpdateService productUpdateService;
+    private final ProductChangesService productChangesService;
+    private final UploadCleanupService uploadCleanupService;
 
     /**
      * Get all products with pagination, search, and filter support
@@ -40,9 +78,14 @@ public class ProductController {
      * @param size Page size (default: 12)
      * @param query Search query (optional)
      * @param category Category filter (optional)
-     * @param price Price range filter (optional: 0-50, 50-100, 100+)
-     * @param sort Sort option (name, price-low, price-high, newest)
-     * @return Map with products and total count
+     * @param price Price range filter (optional: 0-50, 50-100, 100+, or a price band key from /facets)
+     * @param sort Sort option (name, price-low, price-high, newest, relevance, bestselling)
+     * @param cursor Keyset pagination cursor (optional: empty for the first page, then the nextCursor
+     *               of the previous response; page is ignored when set)
+     * @param fields Product properties to write (optional, e.g. id,name,price,imageUrl,stockQuantity)
+     * @param request Current request, for conditional GET handling
+     * @return Map with products and total count, or with products, nextCursor and hasNext in cursor mode
+     *         (304 Not Modified when the client's copy is current)
      */
     @GetMapping
     public ResponseEntity<?> getAllProducts(
@@ -51,9 +94,98 @@ public class ProductController {
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String price,
-            @RequestParam(required = false, defaultValue = "name") String sort
+            @RequestParam(required = false, defaultValue = "name") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            ServletWebRequest request
     ) {
-        return ResponseEntity.ok(productService.getProducts(page, size, query, category, price, sort));
+        if (isNotModified(request)) {
+            return null;
+        }
+        try {
+            SparseFields sparseFields = SparseFields.forProducts(fields);
+            Map<String, Object> response = cursor == null
+                    ? productService.getProducts(page, size, query, category, price, sort, sparseFields)
+                    : productService.scrollProducts(cursor, size, query, category, price, sort, sparseFields);
+            return ResponseEntity.ok(sparseFields.apply(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get facet counts for the product listing (public access)
+     * Takes the same filters as the listing and returns the number of matching products
+     * per category, brand and price band
+     *
+     * @param query Search query (optional)
+     * @param category Category filter (optional)
+     * @param price Price range filter (optional)
+     * @return Facet counts
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDto> getFacets(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String price
+    ) {
+        return ResponseEntity.ok(productService.getFacets(query, category, price));
+    }
+
+    /**
+     * Get typeahead suggestions for the search box (public access)
+     * Completes the prefix with product names, brands and categories, most sold first
+     *
+     * @param prefix Typed text
+     * @param limit Maximum number of suggestions (default: 8, at most 10)
+     * @return List of suggestions
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
+    /**
+     * Get several products by ID in one request (public access)
+     * Replaces one GET /{id} per item when rendering carts, orders and recently viewed products.
+     *
+     * @param ids Comma-separated product IDs (at most 100)
+     * @return Map with products in request order and missingIds, or 400 for an empty or too large batch
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the products changed since the previous sync (public access)
+     * Call without a token for a full sync, then keep the returned nextToken for the next sync;
+     * while hasMore is true, call again at once with the new token.
+     *
+     * @param since Sync token (optional: empty for a full sync)
+     * @param limit Maximum number of products (default: 200, at most 500)
+     * @return Map with products (created, updated or deactivated), deletedIds, nextToken and hasMore
+     *         (400 for a malformed token, 410 Gone when the token is too old and a full sync is required)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(productChangesService.getChanges(since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of("message", e.getMessage()));
+        }
     }
 
     /**
@@ -61,31 +193,144 @@ public class ProductController {
      * Public access (no login required)
      * 
      * @param id Product ID
-     * @return Product details
+     * @param request Current request, for conditional GET handling
+     * @return Product details (304 Not Modified when the client's copy is current)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, ServletWebRequest request) {
+        if (isNotModified(request)) {
+            return null;
+        }
         Optional<ProductDto> product = productService.getProductById(id);
         return product.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get products frequently bought together with a product (public access)
+     *
+     * @param id Product ID
+     * @param limit Maximum number of products (default: 6, at most 10)
+     * @return Related products, most often bought together first (404 if the product does not exist)
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductDto>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit
+    ) {
+        if (productService.getProductById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(productService.getRelatedProducts(id, limit));
+    }
+
+    /**
+     * Rebuild frequently-bought-together data from the order history
+     * Accessible by ADMIN role only
+     *
+     * @return Orders, items and pairs counted, or 409 if a rebuild is already running
+     */
+    @PostMapping("/related/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRelatedProducts() {
+        try {
+            return ResponseEntity.ok(productService.rebuildRelatedProducts());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove uploaded images no product references anymore (ADMIN only)
+     * Files newer than the grace period are always kept.
+     *
+     * @param dryRun Only report what would be removed (default: true)
+     * @return Files scanned, unreferenced and removed with bytes reclaimed, or 409 if a sweep is already running
+     */
+    @PostMapping("/images/sweep")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> sweepUploads(@RequestParam(defaultValue = "true") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(uploadCleanupService.sweep(dryRun));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * Create a new product with optional image upload
      * Accessible by ADMIN role only
      *
      * @param productDto Product data (JSON, as a string)
      * @param imageFile  Image file (optional)
-     * @return Created product
+     * @return Created product, or 400 if the image is empty, too large or not a supported image
      */
     @PostMapping(consumes = {"multipart/form-data"})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductDto> createProductMultipart(
+    public ResponseEntity<?> createProductMultipart(
             @RequestPart("product") String productDtoJson,
             @RequestPart(value = "image", required = false) MultipartFile imageFile) {
         ProductDto productDto = productService.parseProductDto(productDtoJson);
-        ProductDto createdProduct = productService.createProduct(productDto, imageFile);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+        try {
+            ProductDto createdProduct = productService.createProduct(productDto, imageFile);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Import products in bulk (ADMIN only)
+     * The request body is streamed: send the file itself with Content-Type text/csv (header row required)
+     * or application/x-ndjson (one product object per line). Rows with an id update that product.
+     *
+     * @param request Current request (body = file content)
+     * @return Row counts, throughput and the first row errors
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importProducts(HttpServletRequest request) throws IOException {
+        try {
+            ProductImportResultDto result = request.getContentType().startsWith("text/csv")
+                    ? productImportService.importCsv(request.getInputStream())
+                    : productImportService.importNdjson(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Export the catalog as NDJSON, one product per line in ID order (ADMIN only)
+     * The response is streamed from a database cursor, so it starts immediately and uses
+     * constant memory; with gzip=true it is sent with Content-Encoding: gzip.
+     *
+     * @param gzip Compress the response (default: false)
+     * @param includeInactive Also export inactive products (default: false)
+     * @return Streaming NDJSON body
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(defaultValue = "false") boolean includeInactive) {
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 64 * 1024);
+                productExportService.exportNdjson(compressed, includeInactive);
+                compressed.finish();
+            } else {
+                productExportService.exportNdjson(output, includeInactive);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     /**
@@ -95,17 +340,62 @@ public class ProductController {
      * @param id         Product ID
      * @param productDto Product data (JSON, as a string)
      * @param imageFile  Image file (optional)
-     * @return Updated product
+     * @return Updated product, or 400 if the image is empty, too large or not a supported image
      */
     @PutMapping(value = "/{id}", consumes = {"multipart/form-data"})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductDto> updateProductMultipart(
+    public ResponseEntity<?> updateProductMultipart(
             @PathVariable Long id,
             @RequestPart("product") String productDtoJson,
             @RequestPart(value = "image", required = false) MultipartFile imageFile) {
         ProductDto productDto = productService.parseProductDto(productDtoJson);
-        ProductDto updatedProduct = productService.updateProduct(id, productDto, imageFile);
-        return ResponseEntity.ok(updatedProduct);
+        try {
+            ProductDto updatedProduct = productService.updateProduct(id, productDto, imageFile);
+            return ResponseEntity.ok(updatedProduct);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Update some fields of a product (ADMIN only)
+     * Only the fields present in the JSON body are written, e.g. {"stockQuantity": 12}.
+     * The image is not touched; use the multipart PUT to replace it.
+     *
+     * @param id      Product ID
+     * @param changes Field name to new value (ProductDto field names)
+     * @return Updated product
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/json", "application/merge-patch+json"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> patchProduct(@PathVariable Long id, @RequestBody Map<String, Object> changes) {
+        try {
+            Optional<ProductDto> product = productUpdateService.patchProduct(id, changes);
+            if (product.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(product.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Change the price and/or stock of many products at once (ADMIN only)
+     * Each item sets a value (price, stockQuantity) or applies a delta (priceDelta, stockDelta).
+     * All items are applied in one transaction, or none of them.
+     *
+     * @param request Items to apply
+     * @return Item, product and statement counts
+     */
+    @PostMapping("/bulk-update")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> bulkUpdateProducts(@RequestBody ProductBulkUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(productUpdateService.bulkUpdate(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     /**
@@ -130,10 +420,15 @@ public class ProductController {
      * Get products by category (public access)
      * 
      * @param category Product category
-     * @return List of products in the specified category
+     * @param request Current request, for conditional GET handling
+     * @return List of products in the specified category (304 Not Modified when the client's copy is current)
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable String category,
+                                                                  ServletWebRequest request) {
+        if (isNotModified(request)) {
+            return null;
+        }
         List<ProductDto> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(products);
     }
@@ -142,10 +437,18 @@ public class ProductController {
      * Search products by name (public access)
      * 
      * @param query Search query
-     * @return List of products matching the search criteria
+     * @param fuzzy Tolerate typos (optional, default: false)
+     * @return List of products matching the search criteria, or in fuzzy mode a map with products
+     *         and didYouMean (corrected query when a word was not found, otherwise null)
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String query) {
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean fuzzy
+    ) {
+        if (fuzzy) {
+            return ResponseEntity.ok(productService.fuzzySearchProducts(query));
+        }
         List<ProductDto> products = productService.searchProducts(query);
         return ResponseEntity.ok(products);
     }
@@ -153,11 +456,76 @@ public class ProductController {
     /**
      * Get all categories (public access)
      * 
-     * @return List of all unique categories
+     * @param request Current request, for conditional GET handling
+     * @return List of all unique categories (304 Not Modified when the client's copy is current)
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
+    public ResponseEntity<List<String>> getAllCategories(ServletWebRequest request) {
+        if (isDictionaryNotModified(request)) {
+            return null;
+        }
         List<String> categories = productService.getAllCategories();
         return ResponseEntity.ok(categories);
     }
+
+    /**
+     * Get all brands (public access)
+     *
+     * @param request Current request, for conditional GET handling
+     * @return List of all unique brands (304 Not Modified when the client's copy is current)
+     */
+    @GetMapping("/brands")
+    public ResponseEntity<List<String>> getAllBrands(ServletWebRequest request) {
+        if (isDictionaryNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getAllBrands());
+    }
+
+    /**
+     * Get every category and brand with its number of products (public access)
+     *
+     * @param request Current request, for conditional GET handling
+     * @return Category and brand counts (304 Not Modified when the client's copy is current)
+     */
+    @GetMapping("/dictionaries")
+    public ResponseEntity<CatalogDictionaryDto> getDictionaries(ServletWebRequest request) {
+        if (isDictionaryNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getDictionaries());
+    }
+
+    /**
+     * Evaluate If-None-Match / If-Modified-Since against the catalog version
+     * Sets ETag, Last-Modified and Cache-Control: no-cache (clients may keep a copy but must revalidate).
+     * When this returns true the 304 response is already prepared and the handler returns null,
+     * so nothing is queried or serialized.
+     *
+     * @param request Current request
+     * @return true if the client's copy is current
+     */
+    private boolean isNotModified(ServletWebRequest request) {
+        return isNotModified(request, productService.getCatalogVersion(), CacheControl.noCache());
+    }
+
+    /**
+     * Evaluate a conditional GET against the category and brand dictionary version
+     * The dictionaries change rarely, so clients may reuse their copy for a minute without asking.
+     *
+     * @param request Current request
+     * @return true if the client's copy is current
+     */
+    private boolean isDictionaryNotModified(ServletWebRequest request) {
+        return isNotModified(request, productService.getDictionaryVersion(),
+                CacheControl.maxAge(60, TimeUnit.SECONDS).mustRevalidate());
+    }
+
+    private boolean isNotModified(ServletWebRequest request, CatalogIndex.Version version, CacheControl cacheControl) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return request.checkNotModified(version.getETag(), version.getLastModified());
+    }
 } 
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.shop.backend.controller;
 
 import com.shop.backend.dto.UserProfileDto;
+import com.shop.backend.entity.User;
+import com.shop.backend.service.RecommendationService;
 import com.shop.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*")
@@ -15,6 +21,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RecommendationService recommendationService;
+
     /**
      * Lấy thông tin profile của user hiện tại
      */
@@ -34,4 +43,30 @@ public class UserController {
         UserProfileDto updatedProfile = userService.updateCurrentUserProfile(profileDto);
         return ResponseEntity.ok(updatedProfile);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Lấy sản phẩm gợi ý cho user hiện tại ("vì bạn đã mua ...")
+     * Đọc kết quả đã tính sẵn theo user ID; chưa có thì trả về sản phẩm bán chạy (personalized = false)
+     */
+    @GetMapping("/me/recommendations")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMyRecommendations(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getRecommendations(user.getId(), limit));
+    }
+
+    /**
+     * Chạy lại batch tính gợi ý cho tất cả user (chỉ ADMIN)
+     * Trả về 409 nếu batch đang chạy hoặc dữ liệu "thường mua cùng" chưa sẵn sàng
+     */
+    @PostMapping("/recommendations/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRecommendations() {
+        try {
+            return ResponseEntity.ok(recommendationService.runBatch());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
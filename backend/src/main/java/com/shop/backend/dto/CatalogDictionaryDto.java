@@ -0,0 +1,20 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the storefront navigation dictionaries
+ * Every category and brand of the active catalog with its number of active products
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogDictionaryDto {
+
+    private List<ProductFacetsDto.FacetCount> categories;
+    private List<ProductFacetsDto.FacetCount> brands;
+}
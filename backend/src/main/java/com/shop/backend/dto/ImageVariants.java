@@ -0,0 +1,115 @@
+package com.shop.backend.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Naming of the resized copies of an uploaded product image
+ * For /uploads/abc.png the copies are /uploads/abc-w200.jpg, /uploads/abc-w400.jpg, ... and the
+ * blurred placeholder /uploads/abc-lqip.jpg.
+ *
+ * products.image_variants records which copies exist, as "format:width,width,..." (e.g. "jpg:200,400,800");
+ * it is null until the image pipeline has processed the current image.
+ */
+public final class ImageVariants {
+
+    private static final String PLACEHOLDER_SUFFIX = "-lqip.jpg";
+    private static final Pattern COPY_SUFFIX = Pattern.compile("-(w\\d+|lqip)$");
+
+    private ImageVariants() {
+    }
+
+    /**
+     * Encode the copies written for an image
+     *
+     * @param format File extension of the resized copies (jpg or png)
+     * @param widths Widths written, ascending (may be empty when the image is already small)
+     * @return Column value
+     */
+    public static String encode(String format, List<Integer> widths) {
+        return format + ":" + widths.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * URLs of the resized copies
+     *
+     * @param imageUrl Image URL
+     * @param encoded Column value (null when not processed)
+     * @return Width to URL, ascending; empty when there are none
+     */
+    public static Map<Integer, String> urls(String imageUrl, String encoded) {
+        if (imageUrl == null || encoded == null) {
+            return Collections.emptyMap();
+        }
+        int colon = encoded.indexOf(':');
+        String format = encoded.substring(0, colon);
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        for (String width : encoded.substring(colon + 1).split(",")) {
+            if (!width.isEmpty()) {
+                urls.put(Integer.valueOf(width), variantUrl(imageUrl, Integer.parseInt(width), format));
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * URL of the blurred placeholder, if the image has been processed
+     *
+     * @param imageUrl Image URL
+     * @param encoded Column value (null when not processed)
+     * @return Placeholder URL, or null
+     */
+    public static String placeholderUrl(String imageUrl, String encoded) {
+        return imageUrl == null || encoded == null ? null : base(imageUrl) + PLACEHOLDER_SUFFIX;
+    }
+
+    /**
+     * URL of the copy of an image at a width
+     *
+     * @param imageUrl Image URL
+     * @param width Width in pixels
+     * @param format File extension (jpg or png)
+     * @return Copy URL
+     */
+    public static String variantUrl(String imageUrl, int width, String format) {
+        return base(imageUrl) + "-w" + width + "." + format;
+    }
+
+    /**
+     * URL of the blurred placeholder of an image
+     *
+     * @param imageUrl Image URL
+     * @return Placeholder URL
+     */
+    public static String placeholderUrl(String imageUrl) {
+        return base(imageUrl) + PLACEHOLDER_SUFFIX;
+    }
+
+    /**
+     * Name of the image a file of the uploads directory belongs to
+     * Strips precompressed (.br, .gz) and file extensions and the copy suffix: "abc-w400.jpg.gz" gives "abc".
+     *
+     * @param filename File name
+     * @return Image name without extension
+     */
+    public static String baseName(String filename) {
+        String name = filename;
+        if (name.endsWith(".br") || name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        return COPY_SUFFIX.matcher(name).replaceFirst("");
+    }
+
+    private static String base(String imageUrl) {
+        int dot = imageUrl.lastIndexOf('.');
+        return dot > imageUrl.lastIndexOf('/') ? imageUrl.substring(0, dot) : imageUrl;
+    }
+}
@@ -1,5 +1,6 @@
 package com.shop.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -11,6 +12,7 @@ import java.util.List;
  * Contains complete order details for API responses
  */
 @Data
+@JsonFilter(SparseFields.ORDER_FILTER)
 public class OrderDto {
     
     private Long id;
@@ -0,0 +1,29 @@
+package com.shop.backend.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for a bulk price/stock update
+ * Each item changes one product: an absolute value or a delta for price and/or stock
+ */
+@Data
+public class ProductBulkUpdateRequest {
+
+    private List<Item> items;
+
+    /**
+     * Inner DTO for the change of one product
+     * Set at most one of price / priceDelta and at most one of stockQuantity / stockDelta.
+     */
+    @Data
+    public static class Item {
+        private Long productId;
+        private BigDecimal price;
+        private BigDecimal priceDelta;
+        private Integer stockQuantity;
+        private Integer stockDelta;
+    }
+}
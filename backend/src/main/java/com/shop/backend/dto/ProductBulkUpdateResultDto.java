@@ -0,0 +1,20 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of a bulk price/stock update
+ * All items were applied in one transaction
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateResultDto {
+
+    private int items;
+    private int products;
+    private int statements;
+    private long durationMs;
+}
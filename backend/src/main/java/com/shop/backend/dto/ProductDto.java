@@ -1,10 +1,12 @@
 package com.shop.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 /**
  * Data Transfer Object for Product entity
@@ -14,8 +16,10 @@ import java.math.BigDecimal;
  * - Simplified data structure for API communication
  * - Input validation annotations
  * - Lombok annotations for reducing boilerplate code
+ * - Resized image copies (width to URL) and a blurred placeholder, once the image pipeline has run
  */
 @Data
+@JsonFilter(SparseFields.PRODUCT_FILTER)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductDto {
@@ -30,4 +34,18 @@ public class ProductDto {
     private Integer stockQuantity;
     private boolean active;
     private java.time.LocalDateTime createdAt;
+    private long soldCount;
+    private Map<Integer, String> imageVariants;
+    private String imagePlaceholderUrl;
+
+    /**
+     * Constructor used by queries and mappers
+     * Resolves the stored image_variants value into URLs (see ImageVariants).
+     */
+    public ProductDto(Long id, String name, String description, BigDecimal price, String imageUrl,
+                      String category, String brand, Integer stockQuantity, boolean active,
+                      java.time.LocalDateTime createdAt, long soldCount, String imageVariants) {
+        this(id, name, description, price, imageUrl, category, brand, stockQuantity, active, createdAt, soldCount,
+                ImageVariants.urls(imageUrl, imageVariants), ImageVariants.placeholderUrl(imageUrl, imageVariants));
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for storefront facet counts
+ * Number of matching products per category, brand and price band for the current listing query
+ */
+@Data
+public class ProductFacetsDto {
+
+    private long total;
+    private List<FacetCount> categories;
+    private List<FacetCount> brands;
+    private List<PriceBand> priceBands;
+
+    /**
+     * Inner DTO for one facet value and its product count
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private long count;
+    }
+
+    /**
+     * Inner DTO for one price band
+     * The key can be passed back as the price filter of GET /api/products;
+     * min is exclusive, max is inclusive and null for the open top band.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBand {
+        private String key;
+        private BigDecimal min;
+        private BigDecimal max;
+        private long count;
+    }
+}
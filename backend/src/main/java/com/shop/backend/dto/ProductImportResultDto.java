@@ -0,0 +1,37 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the outcome of a bulk product import
+ * Row counts, throughput and the first row errors
+ */
+@Data
+@NoArgsConstructor
+public class ProductImportResultDto {
+
+    private long processed;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long durationMs;
+    private long rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Inner DTO for a rejected row
+     * The row is the 1-based record number in the file (the CSV header is row 1).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String message;
+    }
+}
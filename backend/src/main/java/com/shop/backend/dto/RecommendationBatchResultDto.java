@@ -0,0 +1,21 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of a recommendation batch
+ * Users scored, users with recommendations, chunks run and stale rows removed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationBatchResultDto {
+
+    private long users;
+    private long usersWithRecommendations;
+    private int chunks;
+    private int removed;
+    private long durationMs;
+}
@@ -0,0 +1,19 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one recommended product
+ * Carries the purchased product that led to it ("because you bought ..."), null for best sellers
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationDto {
+
+    private ProductDto product;
+    private Long becauseOfProductId;
+    private String becauseOfProductName;
+}
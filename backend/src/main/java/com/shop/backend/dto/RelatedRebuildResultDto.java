@@ -0,0 +1,21 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of a frequently-bought-together rebuild
+ * Orders and items read, distinct product pairs counted and products with related products
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedRebuildResultDto {
+
+    private long orders;
+    private long items;
+    private long pairs;
+    private int products;
+    private long durationMs;
+}
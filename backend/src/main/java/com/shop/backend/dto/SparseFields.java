@@ -0,0 +1,105 @@
+package com.shop.backend.dto;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset requested with the fields= query parameter (e.g. fields=id,name,price)
+ * Limits the JSON properties written for ProductDto or OrderDto through a Jackson property filter;
+ * services can also ask whether a field is needed at all and skip reading it.
+ *
+ * Without fields= every property is written, as before.
+ */
+public final class SparseFields {
+
+    public static final String PRODUCT_FILTER = "productFields";
+    public static final String ORDER_FILTER = "orderFields";
+    public static final Set<String> PRODUCT_FIELDS = Set.of("id", "name", "description", "price", "imageUrl",
+            "category", "brand", "stockQuantity", "active", "createdAt", "soldCount", "imageVariants",
+            "imagePlaceholderUrl");
+    public static final Set<String> ORDER_FIELDS = Set.of("id", "userId", "customerName", "customerEmail",
+            "shippingAddress", "customerPhone", "totalPrice", "orderDate", "status", "paymentMethod",
+            "paymentStatus", "orderItems");
+
+    private static final SparseFields ALL = new SparseFields(null, null);
+
+    private final String filterId;
+    private final Set<String> fields;
+
+    private SparseFields(String filterId, Set<String> fields) {
+        this.filterId = filterId;
+        this.fields = fields;
+    }
+
+    /**
+     * Parse a fields= parameter for products
+     *
+     * @param value Comma-separated property names (null or blank for all)
+     * @return Field selection
+     * @throws IllegalArgumentException if a name is not a product property
+     */
+    public static SparseFields forProducts(String value) {
+        return parse(value, PRODUCT_FILTER, PRODUCT_FIELDS);
+    }
+
+    /**
+     * Parse a fields= parameter for orders
+     *
+     * @param value Comma-separated property names (null or blank for all)
+     * @return Field selection
+     * @throws IllegalArgumentException if a name is not an order property
+     */
+    public static SparseFields forOrders(String value) {
+        return parse(value, ORDER_FILTER, ORDER_FIELDS);
+    }
+
+    private static SparseFields parse(String value, String filterId, Set<String> allowed) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        Set<String> fields = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        for (String field : fields) {
+            if (!allowed.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field
+                        + " (allowed: " + allowed.stream().sorted().collect(Collectors.joining(", ")) + ")");
+            }
+        }
+        return fields.isEmpty() ? ALL : new SparseFields(filterId, fields);
+    }
+
+    /**
+     * Check whether a property is requested
+     *
+     * @param field Property name
+     * @return true if the property is written
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Wrap a response body so that only the requested properties are written
+     *
+     * @param body Response body (a DTO, or a list or map containing DTOs)
+     * @return The body itself when all fields are requested, otherwise a filtered MappingJacksonValue
+     */
+    public Object apply(Object body) {
+        if (fields == null) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .setFailOnUnknownId(false)
+                .addFilter(filterId, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        return value;
+    }
+}
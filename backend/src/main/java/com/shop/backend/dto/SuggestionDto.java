@@ -0,0 +1,19 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a search box suggestion
+ * A completion of the typed prefix: a product name, a brand or a category
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+
+    private String text;
+    private String type;
+    private Long productId;
+}
@@ -0,0 +1,26 @@
+package com.shop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of an upload sweep
+ * Files scanned, images still referenced by products, unreferenced files found and removed
+ * (in a dry run nothing is removed: orphanedBytes is what a real run would reclaim)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSweepResultDto {
+
+    private boolean dryRun;
+    private long scannedFiles;
+    private long referencedImages;
+    private long recentFiles;
+    private long orphanedFiles;
+    private long orphanedBytes;
+    private long deletedFiles;
+    private long bytesReclaimed;
+    private long durationMs;
+}
@@ -23,7 +23,11 @@ import java.util.List;
  * - Total price calculation
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Keyset pagination of order listings: (sort key, id)
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_user_order_date_id", columnList = "user_id, order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,6 +11,7 @@ import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * Product entity representing a product in the e-commerce system
@@ -20,10 +21,17 @@ import java.time.LocalDateTime;
  * - JPA entity mapping to database table
  * - Input validation using Bean Validation
  * - Automatic timestamp management for creation and updates
+ * - Materialized sales counter (sold_count) for best-selling sorting
+ * - Indexed update time for delta catalog sync
+ * - Resized image copies written by the image pipeline
  * - Lombok annotations for reducing boilerplate code
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_sold_count", columnList = "sold_count, id"),
+    // Delta catalog sync: keyset seek on (updated_at, id)
+    @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -56,6 +64,12 @@ public class Product {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Resized copies of the current image, see ImageVariants (null until the image pipeline has run).
+    // Only written in SQL (ProductJdbcRepository): recorded by the pipeline and cleared whenever image_url
+    // changes, never from the entity, so a product saved from a copy loaded earlier cannot drop them.
+    @Column(name = "image_variants", length = 100, insertable = false, updatable = false)
+    private String imageVariants;
+
     @Size(max = 50, message = "Category cannot exceed 50 characters")
     @Column(nullable = false)
     private String category;
@@ -66,6 +80,13 @@ public class Product {
     @Column(name = "is_active", nullable = false)
     private boolean active = true;
 
+    // Units sold in orders that are not cancelled.
+    // Only changed by set-based UPDATEs (ProductJdbcRepository), never written from the entity,
+    // so a product saved from a stale copy cannot overwrite concurrent increments.
+    @Column(name = "sold_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long soldCount;
+
     // Timestamp fields for tracking creation and updates
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -95,6 +116,20 @@ public class Product {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Set the image URL
+     * The resized copies belong to the previous image, so they are dropped from this copy when the URL
+     * changes; the column itself is cleared with ProductJdbcRepository.clearImageVariants.
+     *
+     * @param imageUrl New image URL
+     */
+    public void setImageUrl(String imageUrl) {
+        if (!Objects.equals(this.imageUrl, imageUrl)) {
+            this.imageVariants = null;
+        }
+        this.imageUrl = imageUrl;
+    }
+
     /**
      * Pre-persist method to set creation timestamp
      * This method is automatically called before the entity is persisted
@@ -0,0 +1,34 @@
+package com.shop.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ProductTombstone entity recording a hard-deleted product
+ * Lets delta catalog sync (/api/products/changes) report deletions, since the product row is gone
+ *
+ * Features:
+ * - One row per deleted product ID (IDs are never reused)
+ * - Deletion time, indexed for "deleted since" queries
+ * - Purged after the retention period; older sync tokens must restart from scratch
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+        @Index(name = "idx_product_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
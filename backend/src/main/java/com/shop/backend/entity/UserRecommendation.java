@@ -0,0 +1,35 @@
+package com.shop.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * UserRecommendation entity holding the precomputed recommendations of one user
+ * Written by the nightly recommendation batch, read with a single primary-key lookup
+ *
+ * Features:
+ * - One row per user, keyed by user ID
+ * - Compact encoding: "productId:becauseProductId" pairs separated by commas, best first
+ * - Time of the batch that computed the row (rows not refreshed by a batch are removed)
+ */
+@Entity
+@Table(name = "user_recommendations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRecommendation {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, length = 1000)
+    private String items;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -4,6 +4,8 @@ import com.shop.backend.entity.CartItem;
 import com.shop.backend.entity.Cart;
 import com.shop.backend.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,14 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByCart(Cart cart);
     Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
     void deleteByCart(Cart cart);
+
+    /**
+     * Find the items of a cart as rows (product by ID only)
+     *
+     * @param cart The cart
+     * @return Item rows, ordered by item ID
+     */
+    @Query("SELECT new com.shop.backend.repository.CartItemRow(ci.id, ci.product.id, ci.quantity, ci.price)"
+            + " FROM CartItem ci WHERE ci.cart = :cart ORDER BY ci.id")
+    List<CartItemRow> findRowsByCart(@Param("cart") Cart cart);
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.shop.backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection of a cart item
+ * The product is referenced by ID only; cart views render it from ProductCache.
+ */
+@Getter
+@AllArgsConstructor
+public class CartItemRow {
+
+    private final Long id;
+    private final Long productId;
+    private final int quantity;
+    private final BigDecimal price;
+}
@@ -1,13 +1,18 @@
 package com.shop.backend.repository;
 
 import com.shop.backend.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for OrderItem entity
@@ -41,6 +46,18 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      */
     void deleteByOrderId(Long orderId);
 
+    /**
+     * Find the items of several orders with their product name and image
+     * One query for a whole page of orders, instead of one per order and one per product
+     *
+     * @param orderIds Order IDs
+     * @return Item rows, ordered by item ID
+     */
+    @Query("SELECT new com.shop.backend.repository.OrderItemRow(oi.order.id, oi.id, p.id, p.name, p.imageUrl,"
+            + " oi.quantity, oi.unitPrice, oi.subtotal)"
+            + " FROM OrderItem oi JOIN oi.product p WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemRow> findRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     /**
      * Truy vấn top sản phẩm bán chạy nhất (theo số lượng)
      * Trả về: Object[]{Product, Long quantity}
@@ -48,6 +65,30 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT oi.product, SUM(oi.quantity) as totalQty FROM OrderItem oi GROUP BY oi.product ORDER BY totalQty DESC")
     List<Object[]> findTopProductsByQuantity(Pageable pageable);
 
+    /**
+     * Find what several users bought, ignoring cancelled orders
+     * Same history as findByUser, for a chunk of users at once and without loading entities.
+     *
+     * @param userIds User IDs
+     * @return Rows of [userId, productId, orderDate]
+     */
+    @Query("SELECT o.user.id, oi.product.id, o.orderDate FROM OrderItem oi JOIN oi.order o"
+            + " WHERE o.user.id IN :userIds"
+            + " AND o.status NOT IN (com.shop.backend.entity.OrderStatus.CANCELLED, com.shop.backend.entity.OrderStatus.CUSTOMER_CANCELLED)")
+    List<Object[]> findPurchasesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Stream the products of every order that is not cancelled, grouped by order in ascending order ID
+     * The MySQL driver streams the rows (fetch size Integer.MIN_VALUE); must be consumed inside a transaction.
+     *
+     * @return Rows of [orderId, productId]
+     */
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi"
+            + " WHERE oi.order.status NOT IN (com.shop.backend.entity.OrderStatus.CANCELLED, com.shop.backend.entity.OrderStatus.CUSTOMER_CANCELLED)"
+            + " ORDER BY oi.order.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<Object[]> streamOrderProducts();
+
     // Tiện ích: lấy top N sản phẩm bán chạy
     default List<Object[]> findTopProductsByQuantity(int limit) {
         return findTopProductsByQuantity(org.springframework.data.domain.PageRequest.of(0, limit));
@@ -0,0 +1,24 @@
+package com.shop.backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection of an order item with the product columns an order view shows
+ * Selected with a constructor expression: only the product name and image are read, not the whole product.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderItemRow {
+
+    private final Long orderId;
+    private final Long id;
+    private final Long productId;
+    private final String productName;
+    private final String productImageUrl;
+    private final Integer quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal subtotal;
+}
@@ -6,6 +6,7 @@ import com.shop.backend.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,9 +25,35 @@ import java.util.Optional;
  * - Custom query methods for order management and analytics
  * - Pagination support for order history
  * - Spring Data JPA automatic query generation
+ * - Specification filters (see OrderSpecifications); paged list views select OrderRow through OrderRowRepository
+ * - OrderRow projections for list views (no user, no items, no managed entities)
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+
+    /**
+     * Constructor expression selecting an OrderRow (alias o)
+     */
+    String SELECT_ROW = "SELECT new com.shop.backend.repository.OrderRow(o.id, o.user.id, o.customerName,"
+            + " o.customerEmail, o.shippingAddress, o.customerPhone, o.totalPrice, o.orderDate, o.status,"
+            + " o.paymentMethod, o.paymentStatus) FROM Order o";
+
+    /**
+     * Find the order rows of a user
+     *
+     * @param user The user whose orders to find
+     * @return Order rows of the user
+     */
+    @Query(SELECT_ROW + " WHERE o.user = :user")
+    List<OrderRow> findRowsByUser(@Param("user") User user);
+
+    /**
+     * Find all order rows
+     *
+     * @return Order rows
+     */
+    @Query(SELECT_ROW)
+    List<OrderRow> findAllRows();
 
     /**
      * Find orders by user
@@ -47,6 +74,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     Page<Order> findByUser(User user, Pageable pageable);
 
+    /**
+     * Find the IDs of users who placed orders, in ascending order after a given ID
+     * Keyset pages of buyers for the recommendation batch (reads the user_id index only).
+     *
+     * @param afterId Last user ID of the previous page (0 for the first page)
+     * @param pageable Page size
+     * @return User IDs
+     */
+    @Query("SELECT DISTINCT o.user.id FROM Order o WHERE o.user.id > :afterId ORDER BY o.user.id")
+    List<Long> findBuyerIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     /**
      * Find orders by date range
      * This method is used for order analytics and reporting
@@ -0,0 +1,45 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.Order;
+import com.shop.backend.entity.OrderStatus;
+import com.shop.backend.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an order row for list views
+ * Selected with a constructor expression: the user and the items are not loaded.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderRow {
+
+    private final Long id;
+    private final Long userId;
+    private final String customerName;
+    private final String customerEmail;
+    private final String shippingAddress;
+    private final String customerPhone;
+    private final BigDecimal totalPrice;
+    private final LocalDateTime orderDate;
+    private final OrderStatus status;
+    private final String paymentMethod;
+    private final PaymentStatus paymentStatus;
+
+    /**
+     * Row of an order that is already loaded
+     * getUser().getId() does not initialize the lazy user.
+     *
+     * @param order Order entity
+     * @return Order row
+     */
+    public static OrderRow of(Order order) {
+        return new OrderRow(order.getId(), order.getUser().getId(), order.getCustomerName(),
+                order.getCustomerEmail(), order.getShippingAddress(), order.getCustomerPhone(),
+                order.getTotalPrice(), order.getOrderDate(), order.getStatus(),
+                order.getPaymentMethod(), order.getPaymentStatus());
+    }
+}
@@ -0,0 +1,168 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.Order;
+import com.shop.backend.entity.OrderStatus;
+import com.shop.backend.entity.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Order list queries returning OrderRow projections for a Specification
+ * The same filters as OrderRepository's Specification queries, but only the row columns are selected:
+ * no Order entity is created, so nothing is hydrated into the persistence context or dirty-checked.
+ *
+ * Features:
+ * - Offset pages with a total count (the count runs only when the page does not tell it already)
+ * - Keyset pages: rows strictly after (sort key, id) of the previous page's last row
+ * - The user is read as the user_id foreign key, without a join
+ * - Only the requested columns are selected (see COLUMNS); the others are left null in the rows
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderRowRepository {
+
+    /**
+     * Selectable OrderRow properties, named like the OrderDto properties
+     */
+    public static final List<String> COLUMNS = List.of("id", "userId", "customerName", "customerEmail",
+            "shippingAddress", "customerPhone", "totalPrice", "orderDate", "status", "paymentMethod",
+            "paymentStatus");
+
+    private final EntityManager entityManager;
+
+    /**
+     * Find one page of order rows
+     *
+     * @param spec Order filter
+     * @param pageable Page and sort
+     * @param columns Properties to select, from COLUMNS (must include id and the sort fields)
+     * @return Page of order rows
+     */
+    public Page<OrderRow> findRows(Specification<Order> spec, Pageable pageable, Set<String> columns) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Order> root = query.from(Order.class);
+        query.multiselect(selections(root, columns));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(toRows(tuples, columns), pageable, () -> count(spec));
+    }
+
+    /**
+     * Find the order rows after a keyset position
+     *
+     * @param spec Order filter
+     * @param sort Sort on field, then id, both in the same direction
+     * @param field Sort field ("id" when the sort is by ID only)
+     * @param key Sort key of the previous page's last row (ignored when field is "id")
+     * @param afterId ID of the previous page's last row, null for the first page
+     * @param limit Maximum number of rows
+     * @param columns Properties to select, from COLUMNS (must include id and field)
+     * @return Order rows
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<OrderRow> findRowsAfter(Specification<Order> spec, Sort sort, String field, Object key,
+                                        Long afterId, int limit, Set<String> columns) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Order> root = query.from(Order.class);
+        query.multiselect(selections(root, columns));
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (afterId != null) {
+            boolean descending = sort.getOrderFor("id") != null && sort.getOrderFor("id").isDescending();
+            Expression<Long> id = root.get("id");
+            Predicate afterRow = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+            if (!field.equals("id")) {
+                Expression<Comparable> value = root.get(field);
+                Comparable comparableKey = (Comparable) key;
+                Predicate afterKey = descending
+                        ? cb.lessThan(value, comparableKey)
+                        : cb.greaterThan(value, comparableKey);
+                afterRow = cb.or(afterKey, cb.and(cb.equal(value, comparableKey), afterRow));
+            }
+            predicates.add(afterRow);
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return toRows(entityManager.createQuery(query).setMaxResults(limit).getResultList(), columns);
+    }
+
+    private long count(Specification<Order> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Selection<?>> selections(Root<Order> root, Set<String> columns) {
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String column : COLUMNS) {
+            if (!columns.contains(column)) {
+                continue;
+            }
+            // The user is the user_id column of the order itself
+            Path<?> path = column.equals("userId") ? root.get("user").get("id") : root.get(column);
+            selections.add(path.alias(column));
+        }
+        return selections;
+    }
+
+    private static List<OrderRow> toRows(List<Tuple> tuples, Set<String> columns) {
+        return tuples.stream()
+                .map(tuple -> new OrderRow(
+                        value(tuple, columns, "id", Long.class),
+                        value(tuple, columns, "userId", Long.class),
+                        value(tuple, columns, "customerName", String.class),
+                        value(tuple, columns, "customerEmail", String.class),
+                        value(tuple, columns, "shippingAddress", String.class),
+                        value(tuple, columns, "customerPhone", String.class),
+                        value(tuple, columns, "totalPrice", BigDecimal.class),
+                        value(tuple, columns, "orderDate", LocalDateTime.class),
+                        value(tuple, columns, "status", OrderStatus.class),
+                        value(tuple, columns, "paymentMethod", String.class),
+                        value(tuple, columns, "paymentStatus", PaymentStatus.class)))
+                .collect(Collectors.toList());
+    }
+
+    private static <T> T value(Tuple tuple, Set<String> columns, String column, Class<T> type) {
+        return columns.contains(column) ? tuple.get(column, type) : null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.Order;
+import com.shop.backend.entity.OrderStatus;
+import com.shop.backend.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * JPA specifications for Order queries that need a dynamic shape
+ * Used with OrderRepository (JpaSpecificationExecutor) for paginated order listings
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Orders placed by a user
+     *
+     * @param user Order owner
+     * @return Specification
+     */
+    public static Specification<Order> placedBy(User user) {
+        return (root, query, cb) -> cb.equal(root.get("user"), user);
+    }
+
+    /**
+     * Orders in a status
+     *
+     * @param status Order status
+     * @return Specification
+     */
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Orders placed at or after a point in time
+     *
+     * @param from Inclusive lower bound
+     * @return Specification
+     */
+    public static Specification<Order> placedFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+    }
+
+    /**
+     * Orders placed before a point in time
+     *
+     * @param to Exclusive upper bound
+     * @return Specification
+     */
+    public static Specification<Order> placedBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("orderDate"), to);
+    }
+
+    /**
+     * Orders whose customer name, email or ID contains a keyword
+     * Same conditions as OrderRepository.searchOrdersByKeyword
+     *
+     * @param keyword Keyword
+     * @return Specification
+     */
+    public static Specification<Order> matchesKeyword(String keyword) {
+        return (root, query, cb) -> {
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("customerName")), pattern),
+                    cb.like(cb.lower(root.get("customerEmail")), pattern),
+                    cb.like(root.get("id").as(String.class), "%" + keyword + "%"));
+        };
+    }
+}
@@ -0,0 +1,391 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the products table for bulk operations
+ * Bypasses the persistence context: no entity state, no per-row flush, one round trip per batch
+ *
+ * Features:
+ * - Multi-row INSERT statements (fast on MySQL even without rewriteBatchedStatements)
+ * - Batched UPDATE statements by ID, of only the columns given (one batch per set of columns)
+ * - One transaction per chunk
+ * - Single-row UPDATE of only the given columns (PATCH)
+ * - Set-based price/stock changes: one JDBC batch per statement shape, with guards in the WHERE clause
+ * - Sales counter (sold_count) increments and a full recount from the order items
+ * - Resized image copies recorded by the image pipeline (cleared by any write that changes image_url)
+ * - Forward-only streaming reads for exports
+ *
+ * Callers must publish a ProductChangedEvent afterwards, since the in-memory catalog does not see these writes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+    private static final String INSERT_SQL = "INSERT INTO products"
+            + " (name, description, price, stock_quantity, image_url, category, brand, is_active, created_at, updated_at)"
+            + " VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT id, name, description, price, stock_quantity, image_url,"
+            + " image_variants, category, brand, is_active, created_at, updated_at, sold_count FROM products";
+    private static final Set<String> PATCHABLE_COLUMNS = Set.of(
+            "name", "description", "price", "stock_quantity", "image_url", "category", "brand", "is_active");
+    private static final String SET_PRICE_SQL = "UPDATE products SET price = ?, updated_at = ? WHERE id = ?";
+    private static final String ADD_TO_PRICE_SQL = "UPDATE products SET price = price + ?, updated_at = ?"
+            + " WHERE id = ? AND price + ? > 0";
+    private static final String SET_STOCK_SQL = "UPDATE products SET stock_quantity = ?, updated_at = ? WHERE id = ?";
+    private static final String ADD_TO_STOCK_SQL = "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ?"
+            + " WHERE id = ? AND stock_quantity + ? >= 0";
+    private static final String ADD_TO_SOLD_SQL = "UPDATE products SET sold_count = GREATEST(sold_count + ?, 0),"
+            + " updated_at = ? WHERE id = ?";
+    private static final String HAS_SOLD_SQL = "SELECT EXISTS(SELECT 1 FROM products WHERE sold_count > 0)";
+    private static final String RECOUNT_SOLD_SQL = "UPDATE products p LEFT JOIN ("
+            + "SELECT oi.product_id, SUM(oi.quantity) AS sold FROM order_items oi JOIN orders o ON o.id = oi.order_id"
+            + " WHERE o.status NOT IN ('CANCELLED', 'CUSTOMER_CANCELLED') GROUP BY oi.product_id) s"
+            + " ON s.product_id = p.id"
+            + " SET p.sold_count = COALESCE(s.sold, 0), p.updated_at = ?"
+            + " WHERE p.sold_count <> COALESCE(s.sold, 0)";
+    private static final String SET_IMAGE_VARIANTS_SQL = "UPDATE products SET image_variants = ?, updated_at = ?"
+            + " WHERE id = ? AND image_url = ?";
+    private static final String CLEAR_IMAGE_VARIANTS_SQL = "UPDATE products SET image_variants = NULL WHERE id = ?";
+    private static final String MISSING_IMAGE_VARIANTS_SQL = "SELECT id, image_url FROM products"
+            + " WHERE image_url LIKE '/uploads/%' AND image_variants IS NULL ORDER BY id";
+    private static final String FILL_UPDATED_AT_SQL = "UPDATE products SET updated_at = COALESCE(created_at, NOW())"
+            + " WHERE updated_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Write one chunk of products in a single transaction
+     * New products are inserted; existing products get only the columns given for them,
+     * in one JDBC batch per set of columns.
+     *
+     * @param inserts New products
+     * @param updateIds IDs of the existing products to update
+     * @param updateColumns Column name to new value for each update, same order; names must be product columns
+     * @return Update count of each update, in order (0 when the ID does not exist)
+     * @throws IllegalArgumentException if a column name is not updatable
+     */
+    @Transactional
+    public int[] writeChunk(List<Product> inserts, List<Long> updateIds, List<Map<String, Object>> updateColumns) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < inserts.size(); from += MAX_ROWS_PER_INSERT) {
+            insertRows(inserts.subList(from, Math.min(inserts.size(), from + MAX_ROWS_PER_INSERT)), now);
+        }
+        int[] counts = new int[updateIds.size()];
+        Map<List<String>, List<Integer>> shapes = new LinkedHashMap<>();
+        for (int i = 0; i < updateIds.size(); i++) {
+            shapes.computeIfAbsent(new ArrayList<>(updateColumns.get(i).keySet()), shape -> new ArrayList<>()).add(i);
+        }
+        shapes.forEach((shape, rows) -> {
+            int[] shapeCounts = jdbcTemplate.batchUpdate(updateColumnsSql(shape), new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int row = rows.get(i);
+                    bindUpdateColumns(ps, shape, updateColumns.get(row), now, updateIds.get(row));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+            for (int i = 0; i < rows.size(); i++) {
+                counts[rows.get(i)] = shapeCounts[i];
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Update only the given columns of one product (updated_at is always set)
+     *
+     * @param id Product ID
+     * @param columns Column name to new value, in statement order; names must be product columns
+     * @return 1 if the product was updated, 0 if it does not exist
+     * @throws IllegalArgumentException if a column name is not updatable
+     */
+    public int updateColumns(Long id, Map<String, Object> columns) {
+        List<String> shape = new ArrayList<>(columns.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(updateColumnsSql(shape), ps -> bindUpdateColumns(ps, shape, columns, now, id));
+    }
+
+    /**
+     * UPDATE statement setting the given columns and updated_at by ID
+     */
+    private static String updateColumnsSql(List<String> columns) {
+        StringBuilder sql = new StringBuilder("UPDATE products SET ");
+        if (columns.contains("image_url")) {
+            // Assignments run left to right: resized copies belong to the old image,
+            // so image_variants is compared with image_url before it is replaced
+            sql.append("image_variants = IF(image_url <=> ?, image_variants, NULL), ");
+        }
+        for (String column : columns) {
+            if (!PATCHABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Column cannot be updated: " + column);
+            }
+            sql.append(column).append(" = ?, ");
+        }
+        return sql.append("updated_at = ? WHERE id = ?").toString();
+    }
+
+    private static void bindUpdateColumns(PreparedStatement ps, List<String> columns, Map<String, Object> values,
+                                          Timestamp now, Long id) throws SQLException {
+        int index = 1;
+        if (columns.contains("image_url")) {
+            ps.setObject(index++, values.get("image_url"));
+        }
+        for (String column : columns) {
+            ps.setObject(index++, values.get(column));
+        }
+        ps.setTimestamp(index++, now);
+        ps.setLong(index, id);
+    }
+
+    /**
+     * Set the price of many products in one batch
+     *
+     * @param ids Product IDs
+     * @param prices New prices, same order
+     * @return Update count of each product (0 when the ID does not exist)
+     */
+    public int[] setPrices(List<Long> ids, List<BigDecimal> prices) {
+        return batchUpdate(SET_PRICE_SQL, ids, prices, false);
+    }
+
+    /**
+     * Add a delta to the price of many products in one batch
+     * Rows whose price would not stay positive are left unchanged.
+     *
+     * @param ids Product IDs
+     * @param deltas Price changes, same order
+     * @return Update count of each product (0 when the ID does not exist or the guard failed)
+     */
+    public int[] addToPrices(List<Long> ids, List<BigDecimal> deltas) {
+        return batchUpdate(ADD_TO_PRICE_SQL, ids, deltas, true);
+    }
+
+    /**
+     * Set the stock quantity of many products in one batch
+     *
+     * @param ids Product IDs
+     * @param quantities New stock quantities, same order
+     * @return Update count of each product (0 when the ID does not exist)
+     */
+    public int[] setStockQuantities(List<Long> ids, List<Integer> quantities) {
+        return batchUpdate(SET_STOCK_SQL, ids, quantities, false);
+    }
+
+    /**
+     * Add a delta to the stock quantity of many products in one batch
+     * Rows whose stock would become negative are left unchanged.
+     *
+     * @param ids Product IDs
+     * @param deltas Stock changes, same order
+     * @return Update count of each product (0 when the ID does not exist or the guard failed)
+     */
+    public int[] addToStockQuantities(List<Long> ids, List<Integer> deltas) {
+        return batchUpdate(ADD_TO_STOCK_SQL, ids, deltas, true);
+    }
+
+    /**
+     * Add a delta to the sales counter of many products in one batch
+     * The counter never goes below zero. Pass IDs in ascending order to lock rows in the same order
+     * as the other bulk updates.
+     *
+     * @param ids Product IDs
+     * @param deltas Units sold (positive) or returned (negative), same order
+     * @return Update count of each product (0 when the ID does not exist)
+     */
+    public int[] addToSoldCounts(List<Long> ids, List<Long> deltas) {
+        return batchUpdate(ADD_TO_SOLD_SQL, ids, deltas, false);
+    }
+
+    /**
+     * Check whether any product has a sales counter above zero
+     *
+     * @return true if at least one product has sales
+     */
+    public boolean hasSoldCounts() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_SOLD_SQL, Boolean.class));
+    }
+
+    /**
+     * Recompute every sales counter from the items of orders that are not cancelled
+     * One set-based UPDATE against the sales aggregated per product. Only products whose counter
+     * actually changes are written, and their updated_at is set so delta sync picks the new count up.
+     *
+     * @return Number of products whose counter changed
+     */
+    @Transactional
+    public int recountSoldCounts() {
+        return jdbcTemplate.update(RECOUNT_SOLD_SQL, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Record the resized copies written for a product image
+     * Skipped when the product's image changed since the copies were made.
+     *
+     * @param id Product ID
+     * @param imageUrl Image the copies were made from
+     * @param imageVariants Encoded copies (see ImageVariants)
+     * @return 1 if recorded, 0 if the product is gone or has another image now
+     */
+    public int setImageVariants(Long id, String imageUrl, String imageVariants) {
+        return jdbcTemplate.update(SET_IMAGE_VARIANTS_SQL, imageVariants, Timestamp.valueOf(LocalDateTime.now()),
+                id, imageUrl);
+    }
+
+    /**
+     * Drop the resized copies of a product whose image is being replaced through the entity
+     * (the entity never writes image_variants). Run in the same transaction as the entity update.
+     *
+     * @param id Product ID
+     */
+    public void clearImageVariants(Long id) {
+        jdbcTemplate.update(CLEAR_IMAGE_VARIANTS_SQL, id);
+    }
+
+    /**
+     * Visit uploaded product images that have no resized copies yet
+     *
+     * @param action Called with product ID and image URL, in ID order
+     */
+    public void forEachImageMissingVariants(BiConsumer<Long, String> action) {
+        jdbcTemplate.query(MISSING_IMAGE_VARIANTS_SQL,
+                (RowCallbackHandler) rs -> action.accept(rs.getLong("id"), rs.getString("image_url")));
+    }
+
+    /**
+     * Set updated_at to created_at where it is missing
+     *
+     * @return Number of products updated
+     */
+    public int fillMissingUpdatedAt() {
+        return jdbcTemplate.update(FILL_UPDATED_AT_SQL);
+    }
+
+    private int[] batchUpdate(String sql, List<Long> ids, List<?> values, boolean guarded) {
+        if (ids.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setObject(1, values.get(i));
+                ps.setTimestamp(2, now);
+                ps.setLong(3, ids.get(i));
+                if (guarded) {
+                    ps.setObject(4, values.get(i));
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    /**
+     * Read products in ID order through a forward-only cursor
+     * The MySQL driver streams rows as they are consumed (fetch size Integer.MIN_VALUE) instead of
+     * buffering the whole result, so memory stays constant; a slow consumer keeps the cursor open.
+     *
+     * @param includeInactive Also read inactive products
+     * @param action Called once per product, in ID order
+     */
+    public void forEachProduct(boolean includeInactive, Consumer<Product> action) {
+        String sql = SELECT_SQL + (includeInactive ? "" : " WHERE is_active = TRUE") + " ORDER BY id";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(mapRow(rs)));
+    }
+
+    private static Product mapRow(ResultSet rs) throws SQLException {
+        Product product = new Product();
+        product.setId(rs.getLong("id"));
+        product.setName(rs.getString("name"));
+        product.setDescription(rs.getString("description"));
+        product.setPrice(rs.getBigDecimal("price"));
+        product.setStockQuantity(rs.getInt("stock_quantity"));
+        product.setImageUrl(rs.getString("image_url"));
+        product.setImageVariants(rs.getString("image_variants"));
+        product.setCategory(rs.getString("category"));
+        product.setBrand(rs.getString("brand"));
+        product.setActive(rs.getBoolean("is_active"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        product.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        product.setUpdatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime());
+        product.setSoldCount(rs.getLong("sold_count"));
+        return product;
+    }
+
+    private void insertRows(List<Product> rows, Timestamp now) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL.length() + rows.size() * (INSERT_ROW.length() + 2));
+        sql.append(INSERT_SQL);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+        }
+        jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (Product product : rows) {
+                index = bindColumns(ps, index, product);
+                ps.setTimestamp(index++, now);
+                ps.setTimestamp(index++, now);
+            }
+        });
+    }
+
+    /**
+     * Bind name, description, price, stock_quantity, image_url, category, brand and is_active
+     *
+     * @return Index of the next parameter
+     */
+    private static int bindColumns(PreparedStatement ps, int index, Product product) throws SQLException {
+        ps.setString(index++, product.getName());
+        setNullableString(ps, index++, product.getDescription());
+        ps.setBigDecimal(index++, product.getPrice());
+        ps.setInt(index++, product.getStockQuantity());
+        setNullableString(ps, index++, product.getImageUrl());
+        ps.setString(index++, product.getCategory());
+        setNullableString(ps, index++, product.getBrand());
+        ps.setBoolean(index++, product.isActive());
+        return index;
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+}
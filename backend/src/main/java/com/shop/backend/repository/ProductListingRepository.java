@@ -0,0 +1,144 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storefront listing queries returning ProductDto projections for a Specification
+ * Used while the in-memory catalog is not loaded. Like ProductRepository.SELECT_DTO, but the description
+ * (the only TEXT column) is selected only when the client asked for it; otherwise it stays null.
+ *
+ * Features:
+ * - Offset pages with a total count (the count runs only when the page does not tell it already)
+ * - Keyset pages: products strictly after (sort key, id) of the previous page's last product
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductListingRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Find one page of products
+     *
+     * @param spec Product filter (e.g. ProductSpecifications.activeMatching)
+     * @param pageable Page and sort
+     * @param withDescription Select the description column
+     * @return Page of products
+     */
+    public Page<ProductDto> findPage(Specification<Product> spec, Pageable pageable, boolean withDescription) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDto> query = cb.createQuery(ProductDto.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root, withDescription));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        List<ProductDto> products = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(products, pageable, () -> count(spec));
+    }
+
+    /**
+     * Find the products after a keyset position
+     *
+     * @param spec Product filter
+     * @param sort Sort on field, then id, both in the same direction
+     * @param field Sort field ("id" when the sort is by ID only)
+     * @param key Sort key of the previous page's last product (ignored when field is "id")
+     * @param afterId ID of the previous page's last product, null for the first page
+     * @param limit Maximum number of products
+     * @param withDescription Select the description column
+     * @return Products
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<ProductDto> findAfter(Specification<Product> spec, Sort sort, String field, Object key,
+                                      Long afterId, int limit, boolean withDescription) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDto> query = cb.createQuery(ProductDto.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root, withDescription));
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (afterId != null) {
+            boolean descending = sort.getOrderFor("id") != null && sort.getOrderFor("id").isDescending();
+            Expression<Long> id = root.get("id");
+            Predicate afterProduct = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+            if (!field.equals("id")) {
+                Expression<Comparable> value = root.get(field);
+                Comparable comparableKey = (Comparable) key;
+                Predicate afterKey = descending
+                        ? cb.lessThan(value, comparableKey)
+                        : cb.greaterThan(value, comparableKey);
+                afterProduct = cb.or(afterKey, cb.and(cb.equal(value, comparableKey), afterProduct));
+            }
+            predicates.add(afterProduct);
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Same constructor call as ProductRepository.SELECT_DTO, with a null literal in place of
+     * the description when it is not selected
+     */
+    private static CompoundSelection<ProductDto> construct(CriteriaBuilder cb, Root<Product> root,
+                                                           boolean withDescription) {
+        Expression<String> description = withDescription
+                ? root.get("description")
+                : cb.nullLiteral(String.class);
+        return cb.construct(ProductDto.class,
+                root.<Long>get("id"),
+                root.<String>get("name"),
+                description,
+                root.<BigDecimal>get("price"),
+                root.<String>get("imageUrl"),
+                root.<String>get("category"),
+                root.<String>get("brand"),
+                root.<Integer>get("stockQuantity"),
+                root.<Boolean>get("active"),
+                root.<LocalDateTime>get("createdAt"),
+                root.<Long>get("soldCount"),
+                root.<String>get("imageVariants"));
+    }
+}
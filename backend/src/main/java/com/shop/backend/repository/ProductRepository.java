@@ -1,14 +1,18 @@
 package com.shop.backend.repository;
 
+import com.shop.backend.dto.ProductDto;
 import com.shop.backend.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,9 +25,108 @@ import java.util.Optional;
  * - Custom query methods for product search and filtering
  * - Pagination support for large product catalogs
  * - Spring Data JPA automatic query generation
+ * - Specification queries with keyset scrolling (see ProductSpecifications)
+ * - ProductDto projections for read paths: only the DTO columns are selected and no entity
+ *   is managed (no dirty-checking snapshot, no proxies)
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    /**
+     * Constructor expression selecting a ProductDto (alias p)
+     */
+    String SELECT_DTO = "SELECT new com.shop.backend.dto.ProductDto(p.id, p.name, p.description, p.price,"
+            + " p.imageUrl, p.category, p.brand, p.stockQuantity, p.active, p.createdAt, p.soldCount,"
+            + " p.imageVariants)"
+            + " FROM Product p";
+
+    /**
+     * Find a product as a DTO
+     *
+     * @param id Product ID
+     * @return Optional containing the product if found (active or not)
+     */
+    @Query(SELECT_DTO + " WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Find products by ID as DTOs
+     *
+     * @param ids Product IDs
+     * @return Products that exist (active or not), in no particular order
+     */
+    @Query(SELECT_DTO + " WHERE p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find active products as DTOs
+     *
+     * @return List of active products
+     */
+    @Query(SELECT_DTO + " WHERE p.active = true")
+    List<ProductDto> findActiveDtos();
+
+    /**
+     * Find one page of active products as DTOs (no count query)
+     *
+     * @param pageable Pagination and sort information
+     * @return Active products of the page
+     */
+    @Query(SELECT_DTO + " WHERE p.active = true")
+    List<ProductDto> findActiveDtos(Pageable pageable);
+
+    /**
+     * Find the best-selling products as DTOs (active or not), read from the sold_count index
+     *
+     * @param pageable Number of products to return
+     * @return Products with at least one sale, most sold first
+     */
+    @Query(SELECT_DTO + " WHERE p.soldCount > 0 ORDER BY p.soldCount DESC, p.id DESC")
+    List<ProductDto> findBestSellingDtos(Pageable pageable);
+
+    /**
+     * Find the uploaded images of products after an ID, for the upload sweeper
+     *
+     * @param afterId Last product ID of the previous page (0 for the first page)
+     * @param pageable Page size
+     * @return Rows of [productId, imageUrl], in ID order
+     */
+    @Query("SELECT p.id, p.imageUrl FROM Product p WHERE p.id > :afterId AND p.imageUrl LIKE '/uploads/%'"
+            + " ORDER BY p.id")
+    List<Object[]> findUploadedImagesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find products changed after a position, in (updatedAt, id) order
+     * A range scan of the (updated_at, id) index; inactive products are included.
+     *
+     * @param after Update time of the position
+     * @param afterId Product ID of the position (0 to include every product updated at that time)
+     * @param pageable Page size
+     * @return Rows of [productId, updatedAt]
+     */
+    @Query("SELECT p.id, p.updatedAt FROM Product p"
+            + " WHERE p.updatedAt >= :after AND (p.updatedAt > :after OR p.id > :afterId)"
+            + " ORDER BY p.updatedAt, p.id")
+    List<Object[]> findChangedAfter(@Param("after") LocalDateTime after, @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Find active products of a category as DTOs
+     *
+     * @param category The category to filter by
+     * @return Active products in the category
+     */
+    @Query(SELECT_DTO + " WHERE p.category = :category AND p.active = true")
+    List<ProductDto> findActiveDtosByCategory(@Param("category") String category);
+
+    /**
+     * Search active products by name as DTOs
+     *
+     * @param searchTerm The term to search for in product names
+     * @return Active products whose name contains the term (case-insensitive)
+     */
+    @Query(SELECT_DTO + " WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) AND p.active = true")
+    List<ProductDto> searchActiveDtosByName(@Param("searchTerm") String searchTerm);
 
     /**
      * Find product by name
@@ -148,6 +251,40 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Page<Product> findByPriceBetweenAndActiveTrue(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
+    /**
+     * Find active products matching optional search, category and price filters
+     * This method backs the storefront listing: filtering, sorting and paging
+     * all happen in a single SQL statement plus a count query
+     *
+     * Every filter is optional: pass null to skip it.
+     * The price range is exclusive at the bottom and inclusive at the top,
+     * matching the storefront price buckets.
+     *
+     * @param searchTerm Term to search for in product name or description
+     * @param category Category to filter by
+     * @param minPrice Exclusive lower price bound
+     * @param maxPrice Inclusive upper price bound
+     * @param pageable Pagination and sort information
+     * @return Page of matching active products
+     */
+    @Query(value = SELECT_DTO + " WHERE p.active = true"
+            + " AND (:category IS NULL OR p.category = :category)"
+            + " AND (:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))"
+            + " OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))"
+            + " AND (:minPrice IS NULL OR p.price > :minPrice)"
+            + " AND (:maxPrice IS NULL OR p.price <= :maxPrice)",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.active = true"
+            + " AND (:category IS NULL OR p.category = :category)"
+            + " AND (:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))"
+            + " OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))"
+            + " AND (:minPrice IS NULL OR p.price > :minPrice)"
+            + " AND (:maxPrice IS NULL OR p.price <= :maxPrice)")
+    Page<ProductDto> searchActiveProducts(@Param("searchTerm") String searchTerm,
+                                          @Param("category") String category,
+                                          @Param("minPrice") BigDecimal minPrice,
+                                          @Param("maxPrice") BigDecimal maxPrice,
+                                          Pageable pageable);
+
     /**
      * Count products by category
      * This method is used for analytics and reporting
@@ -0,0 +1,54 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JPA specifications for Product queries that need a dynamic shape
+ * Used with ProductListingRepository for the storefront listing and with ProductRepository (JpaSpecificationExecutor)
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Active products matching optional search, category and price filters
+     * Same conditions as ProductRepository.searchActiveProducts; pass null to skip a filter.
+     *
+     * @param searchTerm Term to search for in product name or description
+     * @param category Category to filter by
+     * @param minPrice Exclusive lower price bound
+     * @param maxPrice Inclusive upper price bound
+     * @return Specification
+     */
+    public static Specification<Product> activeMatching(String searchTerm, String category,
+                                                        BigDecimal minPrice, BigDecimal maxPrice) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("active")));
+            if (category != null) {
+                predicates.add(cb.equal(root.get("category"), category));
+            }
+            if (searchTerm != null) {
+                String pattern = "%" + searchTerm.toLowerCase(Locale.ROOT) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern),
+                        cb.like(cb.lower(root.get("description")), pattern)));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThan(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.ProductTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for ProductTombstone entity
+ * Provides the deletions reported by delta catalog sync
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Find products deleted in a time window
+     *
+     * @param from Inclusive lower bound
+     * @param until Inclusive upper bound
+     * @return Deleted product IDs, oldest deletion first
+     */
+    @Query("SELECT t.productId FROM ProductTombstone t WHERE t.deletedAt >= :from AND t.deletedAt <= :until"
+            + " ORDER BY t.deletedAt, t.productId")
+    List<Long> findIdsDeletedBetween(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    /**
+     * Purge tombstones older than the retention period
+     *
+     * @param before Deletion time limit
+     * @return Number of tombstones removed
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductTombstone t WHERE t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
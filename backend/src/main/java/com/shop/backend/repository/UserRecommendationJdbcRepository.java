@@ -0,0 +1,57 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.UserRecommendation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC writes of the user_recommendations table for the recommendation batch
+ * One multi-row upsert per chunk of users instead of a select and an insert/update per entity
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserRecommendationJdbcRepository {
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+    private static final String UPSERT_SQL = "INSERT INTO user_recommendations (user_id, items, computed_at) VALUES ";
+    private static final String UPSERT_ROW = "(?, ?, ?)";
+    private static final String ON_DUPLICATE_SQL =
+            " ON DUPLICATE KEY UPDATE items = VALUES(items), computed_at = VALUES(computed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert or replace the recommendations of several users in one transaction
+     *
+     * @param rows Recommendations, one per user
+     */
+    @Transactional
+    public void upsertAll(List<UserRecommendation> rows) {
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_INSERT) {
+            upsertRows(rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_INSERT)));
+        }
+    }
+
+    private void upsertRows(List<UserRecommendation> rows) {
+        StringBuilder sql = new StringBuilder(UPSERT_SQL.length() + ON_DUPLICATE_SQL.length()
+                + rows.size() * (UPSERT_ROW.length() + 2));
+        sql.append(UPSERT_SQL);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(UPSERT_ROW);
+        }
+        sql.append(ON_DUPLICATE_SQL);
+        jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (UserRecommendation row : rows) {
+                ps.setLong(index++, row.getUserId());
+                ps.setString(index++, row.getItems());
+                ps.setTimestamp(index++, Timestamp.valueOf(row.getComputedAt()));
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.shop.backend.repository;
+
+import com.shop.backend.entity.UserRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for UserRecommendation entity
+ * Reads are by user ID (findById); batches write through UserRecommendationJdbcRepository
+ */
+@Repository
+public interface UserRecommendationRepository extends JpaRepository<UserRecommendation, Long> {
+
+    /**
+     * Remove rows a batch did not refresh (users without purchases anymore, deleted users)
+     *
+     * @param computedAt Time of the batch that just finished
+     * @return Number of rows removed
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserRecommendation r WHERE r.computedAt < :computedAt")
+    int deleteComputedBefore(@Param("computedAt") LocalDateTime computedAt);
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
  * - JWT token validation
  * - User authentication setup
  * - Security context management
+ * - Per-request logging at DEBUG only
  */
 @Component
 @RequiredArgsConstructor
@@ -33,13 +34,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
 
+    /**
+     * Uploaded images never carry credentials worth checking
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/uploads/");
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain
     ) throws ServletException, IOException {
-        log.info("[JWT FILTER] Bắt đầu xử lý request: {} {}", request.getMethod(), request.getRequestURI());
+        log.debug("[JWT FILTER] Bắt đầu xử lý request: {} {}", request.getMethod(), request.getRequestURI());
         try {
             final String authHeader = request.getHeader("Authorization");
             final String jwt;
@@ -48,17 +57,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 log.debug("No valid Authorization header found");
                 filterChain.doFilter(request, response);
-                log.info("[JWT FILTER] Kết thúc xử lý request: {} {}", request.getMethod(), request.getRequestURI());
                 return;
             }
             jwt = authHeader.substring(7);
             log.debug("Extracted JWT token: {}", jwt.substring(0, Math.min(50, jwt.length())) + "...");
             if (jwtTokenProvider.validateToken(jwt)) {
                 username = jwtTokenProvider.getUsernameFromToken(jwt);
-                log.info("[JWT FILTER] Token hợp lệ, username giải mã: {}", username);
+                log.debug("[JWT FILTER] Token hợp lệ, username giải mã: {}", username);
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    log.info("[JWT FILTER] Loaded user details for: {}", username);
+                    log.debug("[JWT FILTER] Loaded user details for: {}", username);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -66,7 +74,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.info("[JWT FILTER] Set authentication for user: {}", username);
+                    log.debug("[JWT FILTER] Set authentication for user: {}", username);
                 }
             } else {
                 log.warn("[JWT FILTER] Token KHÔNG hợp lệ hoặc hết hạn!");
@@ -74,7 +82,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             log.error("[JWT FILTER] Lỗi khi xác thực JWT: {}", e.getMessage(), e);
         }
-        log.info("[JWT FILTER] Kết thúc xử lý request: {} {}", request.getMethod(), request.getRequestURI());
         filterChain.doFilter(request, response);
     }
 } 
\ No newline at end of file
@@ -9,6 +9,7 @@ import com.shop.backend.entity.CartItem;
 import com.shop.backend.entity.Product;
 import com.shop.backend.entity.User;
 import com.shop.backend.repository.CartItemRepository;
+import com.shop.backend.repository.CartItemRow;
 import com.shop.backend.repository.CartRepository;
 import com.shop.backend.repository.ProductRepository;
 import com.shop.backend.repository.UserRepository;
@@ -18,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -29,19 +31,35 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductCache productCache;
+    private final ProductMapper productMapper;
 
+    /**
+     * Get the cart of a user, creating an empty one on first access
+     * Items are read as CartItemRow projections and their products come from ProductCache in one lookup,
+     * so no cart item or product entity is loaded. Not read-only, because of the first-access insert.
+     */
     public CartDto getCartByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         Cart cart = cartRepository.findByUser(user).orElseGet(() -> createCartForUser(user));
-        return convertToDto(cart);
+        List<CartItemRow> rows = cartItemRepository.findRowsByCart(cart);
+        Map<Long, ProductDto> products = productCache.getAll(rows.stream()
+                .map(CartItemRow::getProductId)
+                .collect(Collectors.toSet()));
+        List<CartItemDto> items = rows.stream()
+                .map(row -> convertToItemDto(row, products.get(row.getProductId())))
+                .collect(Collectors.toList());
+        return new CartDto(cart.getId(), items, cart.getTotalPrice());
     }
 
     public CartDto addToCart(String username, AddToCartRequest request) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        Product product = productRepository.findById(request.getProductId())
+        // Validate against the cached product; the cart item only needs a reference to the row
+        ProductDto product = productCache.get(request.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        Product productRef = productRepository.getReferenceById(product.getId());
         
         // Check if product is active
         if (!product.isActive()) {
@@ -54,7 +72,7 @@ public class CartService {
         }
         
         Cart cart = cartRepository.findByUser(user).orElseGet(() -> createCartForUser(user));
-        Optional<CartItem> existingItemOpt = cartItemRepository.findByCartAndProduct(cart, product);
+        Optional<CartItem> existingItemOpt = cartItemRepository.findByCartAndProduct(cart, productRef);
         
         if (existingItemOpt.isPresent()) {
             CartItem item = existingItemOpt.get();
@@ -70,7 +88,7 @@ public class CartService {
         } else {
             CartItem item = new CartItem();
             item.setCart(cart);
-            item.setProduct(product);
+            item.setProduct(productRef);
             item.setQuantity(request.getQuantity());
             item.setPrice(product.getPrice());
             cartItemRepository.save(item);
@@ -90,7 +108,7 @@ public class CartService {
         
         if (item.getCart().getId().equals(cart.getId())) {
             // Check stock availability
-            Product product = item.getProduct();
+            ProductDto product = productOf(item);
             if (product.getStockQuantity() < quantity) {
                 throw new RuntimeException("Insufficient stock. Available: " + product.getStockQuantity() + ", Requested: " + quantity);
             }
@@ -153,19 +171,23 @@ public class CartService {
         return new CartDto(cart.getId(), items, cart.getTotalPrice());
     }
 
+    /**
+     * Product of a cart item, from ProductCache when possible
+     * getId() on the lazy product reference does not load it, so cached products cost no query.
+     */
+    private ProductDto productOf(CartItem item) {
+        return productCache.get(item.getProduct().getId())
+                .orElseGet(() -> productMapper.toDto(item.getProduct()));
+    }
+
     private CartItemDto convertToItemDto(CartItem item) {
-        ProductDto productDto = new ProductDto(
-                item.getProduct().getId(),
-                item.getProduct().getName(),
-                item.getProduct().getDescription(),
-                item.getProduct().getPrice(),
-                item.getProduct().getImageUrl(),
-                item.getProduct().getCategory(),
-                item.getProduct().getBrand(),
-                item.getProduct().getStockQuantity(),
-                item.getProduct().isActive(),
-                null
-        );
-        return new CartItemDto(item.getId(), productDto, item.getQuantity(), item.getPrice());
+        return new CartItemDto(item.getId(), productOf(item), item.getQuantity(), item.getPrice());
+    }
+
+    private CartItemDto convertToItemDto(CartItemRow item, ProductDto product) {
+        if (product == null) {
+            throw new RuntimeException("Product not found");
+        }
+        return new CartItemDto(item.getId(), product, item.getQuantity(), item.getPrice());
     }
-} 
\ No newline at end of file
+}
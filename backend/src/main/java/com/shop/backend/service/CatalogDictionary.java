@@ -0,0 +1,249 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.ProductFacetsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * In-memory category and brand dictionaries of the active catalog, with product counts
+ * Replaces SELECT DISTINCT queries for the storefront navigation
+ *
+ * Features:
+ * - Category and brand names (case-insensitive, first spelling seen is displayed), sorted
+ * - Number of active products per category and per brand
+ * - Incremental updates fed by CatalogIndex: only the changed products are re-counted
+ * - Own version, bumped only when a name or a count changes (stock and price edits leave it alone),
+ *   so HTTP caches keep their copy across checkouts
+ * - Lock-free reads of immutable published lists
+ */
+@Component
+public class CatalogDictionary {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Assignment> assignments = new HashMap<>();
+    private final Names categoryNames = new Names();
+    private final Names brandNames = new Names();
+    private long versions;
+
+    private volatile Published published;
+
+    /**
+     * Replace both dictionaries
+     *
+     * @param products Active products
+     */
+    public synchronized void rebuild(Collection<ProductDto> products) {
+        assignments.clear();
+        categoryNames.clear();
+        brandNames.clear();
+        for (ProductDto product : products) {
+            add(product);
+        }
+        publish();
+    }
+
+    /**
+     * Apply product changes
+     *
+     * @param upserts Active products that were created or updated
+     * @param removedIds IDs of products that were deleted or deactivated
+     */
+    public synchronized void update(Collection<ProductDto> upserts, Collection<Long> removedIds) {
+        boolean changed = false;
+        for (Long id : removedIds) {
+            changed |= remove(id);
+        }
+        for (ProductDto product : upserts) {
+            Assignment previous = assignments.get(product.getId());
+            if (previous != null && previous.matches(product)) {
+                continue;
+            }
+            remove(product.getId());
+            add(product);
+            changed = true;
+        }
+        if (changed || published == null) {
+            publish();
+        }
+    }
+
+    /**
+     * Check whether the dictionaries have been built
+     *
+     * @return true once rebuild has run
+     */
+    public boolean isLoaded() {
+        return published != null;
+    }
+
+    /**
+     * Get the category names, sorted
+     *
+     * @return Category names
+     */
+    public List<String> categories() {
+        return published.categories;
+    }
+
+    /**
+     * Get the brand names, sorted
+     *
+     * @return Brand names
+     */
+    public List<String> brands() {
+        return published.brands;
+    }
+
+    /**
+     * Get the number of active products per category, sorted by category name
+     *
+     * @return Category counts
+     */
+    public List<ProductFacetsDto.FacetCount> categoryCounts() {
+        return published.categoryCounts;
+    }
+
+    /**
+     * Get the number of active products per brand, sorted by brand name
+     *
+     * @return Brand counts
+     */
+    public List<ProductFacetsDto.FacetCount> brandCounts() {
+        return published.brandCounts;
+    }
+
+    /**
+     * Get the dictionary version for conditional GETs
+     *
+     * @return Version (ETag and Last-Modified)
+     */
+    public CatalogIndex.Version version() {
+        return published.version;
+    }
+
+    private void add(ProductDto product) {
+        Assignment assignment = new Assignment(product.getCategory(), product.getBrand());
+        assignments.put(product.getId(), assignment);
+        categoryNames.add(assignment.category);
+        brandNames.add(assignment.brand);
+    }
+
+    private boolean remove(Long id) {
+        Assignment assignment = assignments.remove(id);
+        if (assignment == null) {
+            return false;
+        }
+        categoryNames.remove(assignment.category);
+        brandNames.remove(assignment.brand);
+        return true;
+    }
+
+    private void publish() {
+        versions++;
+        published = new Published(
+                categoryNames.names(), brandNames.names(),
+                categoryNames.counts(), brandNames.counts(),
+                new CatalogIndex.Version(epoch + "-d" + versions, System.currentTimeMillis()));
+    }
+
+    private static String key(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Category and brand a product is counted under
+     */
+    private static final class Assignment {
+        private final String category;
+        private final String brand;
+
+        private Assignment(String category, String brand) {
+            this.category = category;
+            this.brand = brand;
+        }
+
+        private boolean matches(ProductDto product) {
+            return Objects.equals(category, product.getCategory())
+                    && Objects.equals(brand, product.getBrand());
+        }
+    }
+
+    /**
+     * Counted names keyed case-insensitively, in key order
+     */
+    private static final class Names {
+        private final TreeMap<String, Counted> byKey = new TreeMap<>();
+
+        private void add(String name) {
+            String key = key(name);
+            if (key != null) {
+                byKey.computeIfAbsent(key, k -> new Counted(name)).count++;
+            }
+        }
+
+        private void remove(String name) {
+            String key = key(name);
+            Counted counted = key != null ? byKey.get(key) : null;
+            if (counted != null && --counted.count == 0) {
+                byKey.remove(key);
+            }
+        }
+
+        private void clear() {
+            byKey.clear();
+        }
+
+        private List<String> names() {
+            List<String> names = new ArrayList<>(byKey.size());
+            byKey.values().forEach(counted -> names.add(counted.name));
+            return Collections.unmodifiableList(names);
+        }
+
+        private List<ProductFacetsDto.FacetCount> counts() {
+            List<ProductFacetsDto.FacetCount> counts = new ArrayList<>(byKey.size());
+            byKey.values().forEach(counted -> counts.add(new ProductFacetsDto.FacetCount(counted.name, counted.count)));
+            return Collections.unmodifiableList(counts);
+        }
+    }
+
+    private static final class Counted {
+        private final String name;
+        private long count;
+
+        private Counted(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Immutable view handed to readers
+     */
+    private static final class Published {
+        private final List<String> categories;
+        private final List<String> brands;
+        private final List<ProductFacetsDto.FacetCount> categoryCounts;
+        private final List<ProductFacetsDto.FacetCount> brandCounts;
+        private final CatalogIndex.Version version;
+
+        private Published(List<String> categories, List<String> brands,
+                          List<ProductFacetsDto.FacetCount> categoryCounts,
+                          List<ProductFacetsDto.FacetCount> brandCounts,
+                          CatalogIndex.Version version) {
+            this.categories = categories;
+            this.brands = brands;
+            this.categoryCounts = categoryCounts;
+            this.brandCounts = brandCounts;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.ProductFacetsDto;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Facet bitsets of one catalog snapshot
+ * Bit i of every set refers to position i of the snapshot's product array,
+ * so counting a facet value is an AND of two bitsets plus a popcount.
+ *
+ * Features:
+ * - One bitset per category, brand and price band
+ * - Price bands cut at quantiles of the actual price distribution, rounded to two significant digits
+ * - Disjunctive counts: category counts ignore the category filter and price band counts ignore
+ *   the price filter, so the other values stay selectable
+ */
+final class CatalogFacets {
+
+    private static final int PRICE_BANDS = 5;
+    private static final MathContext CUT_PRECISION = new MathContext(2, RoundingMode.HALF_UP);
+
+    private final Map<String, Integer> categoryIndex;
+    private final String[] categoryNames;
+    private final BitSet[] categoryBits;
+    private final String[] brandNames;
+    private final BitSet[] brandBits;
+    private final BigDecimal[] priceCuts;
+    private final BitSet[] bandBits;
+
+    private CatalogFacets(Map<String, Integer> categoryIndex, String[] categoryNames, BitSet[] categoryBits,
+                          String[] brandNames, BitSet[] brandBits, BigDecimal[] priceCuts, BitSet[] bandBits) {
+        this.categoryIndex = categoryIndex;
+        this.categoryNames = categoryNames;
+        this.categoryBits = categoryBits;
+        this.brandNames = brandNames;
+        this.brandBits = brandBits;
+        this.priceCuts = priceCuts;
+        this.bandBits = bandBits;
+    }
+
+    /**
+     * Build the facet bitsets of a product array
+     *
+     * @param products Products by snapshot position
+     * @param categoryKeys Lower-cased category per position
+     * @return Facet bitsets
+     */
+    static CatalogFacets build(ProductDto[] products, String[] categoryKeys) {
+        // Values are grouped case-insensitively; the display name is the first spelling seen
+        TreeMap<String, String> categories = new TreeMap<>();
+        TreeMap<String, String> brands = new TreeMap<>();
+        for (int i = 0; i < products.length; i++) {
+            if (categoryKeys[i] != null) {
+                categories.putIfAbsent(categoryKeys[i], products[i].getCategory());
+            }
+            String brand = brandKey(products[i].getBrand());
+            if (brand != null) {
+                brands.putIfAbsent(brand, products[i].getBrand());
+            }
+        }
+
+        Map<String, Integer> categoryIndex = indexOf(categories);
+        Map<String, Integer> brandIndex = indexOf(brands);
+        BitSet[] categoryBits = newBitSets(categories.size(), products.length);
+        BitSet[] brandBits = newBitSets(brands.size(), products.length);
+        BigDecimal[] priceCuts = priceCuts(products);
+        BitSet[] bandBits = newBitSets(priceCuts.length + 1, products.length);
+
+        for (int i = 0; i < products.length; i++) {
+            if (categoryKeys[i] != null) {
+                categoryBits[categoryIndex.get(categoryKeys[i])].set(i);
+            }
+            String brand = brandKey(products[i].getBrand());
+            if (brand != null) {
+                brandBits[brandIndex.get(brand)].set(i);
+            }
+            BigDecimal price = products[i].getPrice();
+            if (price != null) {
+                bandBits[band(priceCuts, price)].set(i);
+            }
+        }
+
+        return new CatalogFacets(categoryIndex, categories.values().toArray(new String[0]), categoryBits,
+                brands.values().toArray(new String[0]), brandBits, priceCuts, bandBits);
+    }
+
+    /**
+     * Count facet values for a listing query
+     *
+     * @param products Products by snapshot position
+     * @param base Positions matching the search query (all positions if there is none)
+     * @param filter Listing filter
+     * @return Facet counts
+     */
+    ProductFacetsDto count(ProductDto[] products, BitSet base, ProductFilter filter) {
+        BitSet categoryMask = null;
+        if (filter.getCategory() != null) {
+            Integer index = categoryIndex.get(filter.getCategory().toLowerCase(Locale.ROOT));
+            categoryMask = index != null ? categoryBits[index] : new BitSet();
+        }
+        BitSet priceMask = null;
+        if (filter.hasPriceRange()) {
+            priceMask = new BitSet(products.length);
+            for (int pos = base.nextSetBit(0); pos >= 0; pos = base.nextSetBit(pos + 1)) {
+                if (filter.matchesPrice(products[pos].getPrice())) {
+                    priceMask.set(pos);
+                }
+            }
+        }
+
+        BitSet inPriceRange = and(base, priceMask);
+        BitSet inCategory = and(base, categoryMask);
+        BitSet matching = and(inPriceRange, categoryMask);
+        BitSet scratch = new BitSet(products.length);
+
+        List<ProductFacetsDto.FacetCount> categories = new ArrayList<>(categoryNames.length);
+        for (int i = 0; i < categoryNames.length; i++) {
+            categories.add(new ProductFacetsDto.FacetCount(categoryNames[i], intersect(scratch, inPriceRange, categoryBits[i])));
+        }
+
+        List<ProductFacetsDto.FacetCount> brands = new ArrayList<>();
+        for (int i = 0; i < brandNames.length; i++) {
+            long count = intersect(scratch, matching, brandBits[i]);
+            if (count > 0) {
+                brands.add(new ProductFacetsDto.FacetCount(brandNames[i], count));
+            }
+        }
+        brands.sort(Comparator.comparingLong(ProductFacetsDto.FacetCount::getCount).reversed());
+
+        List<ProductFacetsDto.PriceBand> priceBands = new ArrayList<>(bandBits.length);
+        for (int i = 0; i < bandBits.length; i++) {
+            BigDecimal min = i == 0 ? BigDecimal.ZERO : priceCuts[i - 1];
+            BigDecimal max = i < priceCuts.length ? priceCuts[i] : null;
+            String key = min.toPlainString() + (max != null ? "-" + max.toPlainString() : "+");
+            priceBands.add(new ProductFacetsDto.PriceBand(key, min, max, intersect(scratch, inCategory, bandBits[i])));
+        }
+
+        ProductFacetsDto dto = new ProductFacetsDto();
+        dto.setTotal(matching.cardinality());
+        dto.setCategories(categories);
+        dto.setBrands(brands);
+        dto.setPriceBands(priceBands);
+        return dto;
+    }
+
+    /**
+     * Compute price band boundaries from the price distribution
+     *
+     * @param products Products
+     * @return Strictly increasing, positive cut-offs (upper bound of every band but the last)
+     */
+    private static BigDecimal[] priceCuts(ProductDto[] products) {
+        BigDecimal[] prices = Arrays.stream(products)
+                .map(ProductDto::getPrice)
+                .filter(price -> price != null)
+                .sorted()
+                .toArray(BigDecimal[]::new);
+        if (prices.length == 0) {
+            return new BigDecimal[0];
+        }
+        BigDecimal highest = prices[prices.length - 1];
+        TreeSet<BigDecimal> cuts = new TreeSet<>();
+        for (int i = 1; i < PRICE_BANDS; i++) {
+            BigDecimal cut = prices[(int) ((long) i * prices.length / PRICE_BANDS)]
+                    .round(CUT_PRECISION)
+                    .stripTrailingZeros();
+            if (cut.signum() > 0 && cut.compareTo(highest) < 0) {
+                cuts.add(cut.scale() < 0 ? cut.setScale(0) : cut);
+            }
+        }
+        return cuts.toArray(new BigDecimal[0]);
+    }
+
+    private static int band(BigDecimal[] cuts, BigDecimal price) {
+        // Bands are exclusive at the bottom and inclusive at the top, like ProductFilter
+        int index = Arrays.binarySearch(cuts, price);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long intersect(BitSet scratch, BitSet a, BitSet b) {
+        scratch.clear();
+        scratch.or(a);
+        scratch.and(b);
+        return scratch.cardinality();
+    }
+
+    private static BitSet and(BitSet a, BitSet mask) {
+        BitSet result = (BitSet) a.clone();
+        if (mask != null) {
+            result.and(mask);
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> indexOf(TreeMap<String, String> values) {
+        Map<String, Integer> index = new HashMap<>(values.size() * 2);
+        for (String key : values.keySet()) {
+            index.put(key, index.size());
+        }
+        return index;
+    }
+
+    private static BitSet[] newBitSets(int count, int size) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new BitSet(size);
+        }
+        return sets;
+    }
+
+    private static String brandKey(String brand) {
+        return brand != null && !brand.isBlank() ? brand.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
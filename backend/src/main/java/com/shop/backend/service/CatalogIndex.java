@@ -0,0 +1,207 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of the active storefront catalog
+ * Serves the read-only product listing endpoints from an immutable CatalogSnapshot
+ *
+ * Features:
+ * - Snapshot built from ProductRepository when the application starts
+ * - Lock-free reads: readers always see one consistent snapshot
+ * - Copy-on-write updates published atomically after product changes commit, made by a single background
+ *   thread so the committing request does not wait; changes arriving meanwhile are merged into one update
+ * - Falls back to the database (snapshot() returns null) until a snapshot is available
+ * - Keeps ProductSearchIndex, ProductSuggester and CatalogDictionary in step with the snapshot
+ * - Catalog version (ETag / Last-Modified) bumped after every product change, for conditional GETs
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndex {
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggester suggester;
+    private final CatalogDictionary dictionary;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile CatalogSnapshot snapshot;
+    private volatile Version version = new Version(epoch + "-0", System.currentTimeMillis());
+
+    // Changes waiting for the refresher thread, guarded by pendingLock
+    private final Object pendingLock = new Object();
+    private Set<Long> pendingIds = new LinkedHashSet<>();
+    private boolean pendingReload;
+    private boolean refreshQueued;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Get the current snapshot
+     *
+     * @return Current snapshot, or null if the catalog is not loaded
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the current catalog version
+     * Changes shortly after a product change commits, whether or not a snapshot is loaded.
+     * It is published after the new snapshot, so data read after the version is at least that new.
+     *
+     * @return Current version
+     */
+    public Version version() {
+        return version;
+    }
+
+    /**
+     * Load the catalog once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Queue a snapshot update after product changes commit
+     * Returns at once: the IDs are merged into the pending changes and at most one refresh is queued.
+     *
+     * @param event Product changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (pendingLock) {
+            if (event.isFullReload()) {
+                pendingReload = true;
+            } else {
+                pendingIds.addAll(event.getProductIds());
+            }
+            if (refreshQueued) {
+                return;
+            }
+            refreshQueued = true;
+        }
+        refresher.execute(this::refresh);
+    }
+
+    /**
+     * Apply all pending changes, on the refresher thread
+     */
+    private void refresh() {
+        Set<Long> productIds;
+        boolean fullReload;
+        synchronized (pendingLock) {
+            productIds = pendingIds;
+            fullReload = pendingReload;
+            pendingIds = new LinkedHashSet<>();
+            pendingReload = false;
+            refreshQueued = false;
+        }
+        if (fullReload) {
+            reload();
+        } else if (!productIds.isEmpty()) {
+            update(productIds);
+        }
+    }
+
+    /**
+     * Publish a new snapshot with the given products re-read from the database
+     * Falls back to a full reload while no snapshot is loaded.
+     *
+     * @param productIds Changed product IDs
+     */
+    private synchronized void update(Set<Long> productIds) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            reload();
+            return;
+        }
+        long next = versions.incrementAndGet();
+        try {
+            List<ProductDto> upserts = new ArrayList<>();
+            Set<Long> removed = new HashSet<>(productIds);
+            for (ProductDto product : productRepository.findDtosByIdIn(productIds)) {
+                if (product.isActive()) {
+                    upserts.add(product);
+                    removed.remove(product.getId());
+                }
+            }
+            snapshot = current.withChanges(upserts, removed, next);
+            searchIndex.update(upserts, removed);
+            suggester.update(upserts, removed);
+            dictionary.update(upserts, removed);
+        } catch (RuntimeException e) {
+            // Serve from the database until the next successful reload
+            log.error("Failed to update catalog snapshot for products {}", productIds, e);
+            snapshot = null;
+        } finally {
+            version = new Version(epoch + "-" + next, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the database
+     */
+    public synchronized void reload() {
+        long next = versions.incrementAndGet();
+        try {
+            long start = System.currentTimeMillis();
+            List<ProductDto> products = productRepository.findActiveDtos();
+            snapshot = CatalogSnapshot.build(products, next);
+            searchIndex.rebuild(products);
+            suggester.rebuild(products);
+            dictionary.rebuild(products);
+            log.info("Catalog snapshot loaded: {} products in {} ms", products.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Failed to load catalog snapshot", e);
+            snapshot = null;
+        } finally {
+            version = new Version(epoch + "-" + next, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Catalog version as exposed to HTTP caches
+     * The ETag combines a per-start epoch with a version counter, so it never repeats across restarts.
+     */
+    public static final class Version {
+        private final String eTag;
+        private final long lastModified;
+
+        Version(String tag, long lastModified) {
+            this.eTag = "\"" + tag + "\"";
+            this.lastModified = lastModified;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
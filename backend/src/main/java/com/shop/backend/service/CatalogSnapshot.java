@@ -0,0 +1,633 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.ProductFacetsDto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable snapshot of the active storefront catalog
+ * A snapshot is never modified after construction, so any number of readers can use it
+ * without locking while a writer prepares the next one (copy-on-write).
+ *
+ * Features:
+ * - Products stored by position in ID order
+ * - Pre-sorted permutation arrays for every sort key (name, price, creation time, units sold)
+ * - Per-category position lists
+ * - Filtering and paging without touching the database
+ * - Keyset pagination: a cursor is located by binary search in the sort permutation
+ * - Relevance ordering of search matches
+ * - Facet counts per category, brand and price band (see CatalogFacets)
+ */
+public final class CatalogSnapshot {
+
+    /** Above this many sales changes in one update, re-sorting the key is cheaper than moving each product */
+    private static final int MAX_REPOSITIONED = 64;
+
+    private final long version;
+    private final Instant builtAt;
+    private final ProductDto[] products;
+    private final String[] categoryKeys;
+    private final Map<CatalogSort.Key, int[]> orders;
+    private final long[] ids;
+    private final Map<String, int[]> categoryPositions;
+    private final List<String> categories;
+    private final CatalogFacets facets;
+
+    private CatalogSnapshot(long version, ProductDto[] products, String[] categoryKeys,
+                            Map<CatalogSort.Key, int[]> orders,
+                            long[] ids, Map<String, int[]> categoryPositions,
+                            List<String> categories, CatalogFacets facets) {
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.products = products;
+        this.categoryKeys = categoryKeys;
+        this.orders = orders;
+        this.ids = ids;
+        this.categoryPositions = categoryPositions;
+        this.categories = categories;
+        this.facets = facets;
+    }
+
+    /**
+     * Build a snapshot from scratch
+     *
+     * @param source Active products
+     * @param version Catalog version of the snapshot
+     * @return New snapshot
+     */
+    public static CatalogSnapshot build(Collection<ProductDto> source, long version) {
+        ProductDto[] products = source.toArray(new ProductDto[0]);
+        Arrays.sort(products, Comparator.comparing(ProductDto::getId));
+        int n = products.length;
+
+        String[] categoryKeys = new String[n];
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            categoryKeys[i] = lower(products[i].getCategory());
+            ids[i] = products[i].getId();
+        }
+
+        Map<CatalogSort.Key, int[]> orders = new EnumMap<>(CatalogSort.Key.class);
+        for (CatalogSort.Key key : CatalogSort.Key.values()) {
+            orders.put(key, sortedOrder(products, key));
+        }
+
+        // Group positions by category; the display name is the first spelling seen
+        Map<String, List<Integer>> grouped = new LinkedHashMap<>();
+        TreeMap<String, String> names = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            if (categoryKeys[i] == null) {
+                continue;
+            }
+            grouped.computeIfAbsent(categoryKeys[i], k -> new ArrayList<>()).add(i);
+            names.putIfAbsent(categoryKeys[i], products[i].getCategory());
+        }
+        Map<String, int[]> categoryPositions = new HashMap<>();
+        grouped.forEach((key, list) -> categoryPositions.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new CatalogSnapshot(version, products, categoryKeys,
+                Collections.unmodifiableMap(orders), ids,
+                Collections.unmodifiableMap(categoryPositions),
+                Collections.unmodifiableList(new ArrayList<>(names.values())),
+                CatalogFacets.build(products, categoryKeys));
+    }
+
+    /**
+     * Derive the next snapshot from this one
+     * Changes that keep every sort key, category and brand (stock, description, image...) only copy
+     * the product array and reuse all permutations. Sales changes from checkouts also stay in place:
+     * only the changed products are moved within the units-sold permutation. Anything else rebuilds
+     * the snapshot.
+     *
+     * @param upserts Active products that were created or updated
+     * @param removedIds IDs of products that were deleted or deactivated
+     * @param newVersion Catalog version of the new snapshot
+     * @return New snapshot
+     */
+    public CatalogSnapshot withChanges(Collection<ProductDto> upserts, Collection<Long> removedIds, long newVersion) {
+        boolean inPlace = removedIds.stream().noneMatch(id -> position(id) >= 0);
+        BitSet soldChanged = new BitSet(products.length);
+        if (inPlace) {
+            for (ProductDto dto : upserts) {
+                int pos = position(dto.getId());
+                if (pos < 0 || !sameLayout(products[pos], dto)) {
+                    inPlace = false;
+                    break;
+                }
+                if (products[pos].getSoldCount() != dto.getSoldCount()) {
+                    soldChanged.set(pos);
+                }
+            }
+        }
+
+        if (inPlace) {
+            ProductDto[] productsCopy = products.clone();
+            for (ProductDto dto : upserts) {
+                productsCopy[position(dto.getId())] = dto;
+            }
+            Map<CatalogSort.Key, int[]> ordersCopy = orders;
+            if (!soldChanged.isEmpty()) {
+                Map<CatalogSort.Key, int[]> changed = new EnumMap<>(orders);
+                changed.put(CatalogSort.Key.SOLD_COUNT,
+                        reposition(orders.get(CatalogSort.Key.SOLD_COUNT), productsCopy, CatalogSort.Key.SOLD_COUNT, soldChanged));
+                ordersCopy = Collections.unmodifiableMap(changed);
+            }
+            return new CatalogSnapshot(newVersion, productsCopy, categoryKeys,
+                    ordersCopy, ids, categoryPositions, categories, facets);
+        }
+
+        Map<Long, ProductDto> merged = new LinkedHashMap<>(products.length * 2);
+        for (ProductDto product : products) {
+            merged.put(product.getId(), product);
+        }
+        removedIds.forEach(merged::remove);
+        for (ProductDto dto : upserts) {
+            merged.put(dto.getId(), dto);
+        }
+        return build(merged.values(), newVersion);
+    }
+
+    /**
+     * Sort all positions by a key, ties by position (ID order)
+     */
+    private static int[] sortedOrder(ProductDto[] products, CatalogSort.Key key) {
+        if (key == CatalogSort.Key.ID) {
+            // Positions already are in ID order
+            return IntStream.range(0, products.length).toArray();
+        }
+        Comparator<ProductDto> comparator = keyComparator(key);
+        return IntStream.range(0, products.length)
+                .boxed()
+                .sorted((a, b) -> {
+                    int cmp = comparator.compare(products[a], products[b]);
+                    return cmp != 0 ? cmp : Integer.compare(a, b);
+                })
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Move changed products to their new place in a permutation
+     * The changed positions are taken out, which leaves the rest sorted, and each one is put back at
+     * its binary-searched index. A few changes cost a few array copies; many changes re-sort the key.
+     *
+     * @param order Current ascending permutation of the key
+     * @param products Products with the new key values
+     * @param key Sort key
+     * @param changed Positions whose key value changed
+     * @return New permutation
+     */
+    private static int[] reposition(int[] order, ProductDto[] products, CatalogSort.Key key, BitSet changed) {
+        if (changed.cardinality() > MAX_REPOSITIONED) {
+            return sortedOrder(products, key);
+        }
+        Comparator<ProductDto> comparator = keyComparator(key);
+        int[] result = new int[order.length];
+        int size = 0;
+        for (int pos : order) {
+            if (!changed.get(pos)) {
+                result[size++] = pos;
+            }
+        }
+        for (int pos = changed.nextSetBit(0); pos >= 0; pos = changed.nextSetBit(pos + 1)) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = comparator.compare(products[result[mid]], products[pos]);
+                if (cmp < 0 || (cmp == 0 && result[mid] < pos)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            System.arraycopy(result, lo, result, lo + 1, size - lo);
+            result[lo] = pos;
+            size++;
+        }
+        return result;
+    }
+
+    /**
+     * Filter, sort and page the catalog
+     *
+     * @param filter Listing filter
+     * @param matches Search matches of the filter query, null if there is no query
+     * @param sort Sort option
+     * @param page Page number (0-based)
+     * @param size Page size
+     * @return Products of the requested page and the total number of matches
+     */
+    public Result query(ProductFilter filter, ProductSearchIndex.Matches matches, CatalogSort sort, int page, int size) {
+        int n = products.length;
+        int[] order = orders.get(sort.getKey());
+        long from = (long) page * size;
+        List<ProductDto> content = new ArrayList<>(Math.max(0, Math.min(size, n)));
+
+        if (matches != null && sort == CatalogSort.RELEVANCE) {
+            return queryByRelevance(filter, matches, from, size);
+        }
+        if (filter.isEmpty()) {
+            for (long i = from; i < n && content.size() < size; i++) {
+                content.add(products[order[index(sort, (int) i, n)]]);
+            }
+            return new Result(content, n);
+        }
+
+        String categoryKey = lower(filter.getCategory());
+        if (categoryKey != null && !categoryPositions.containsKey(categoryKey)) {
+            return new Result(content, 0);
+        }
+
+        BitSet matched = matches != null ? matchedPositions(matches) : null;
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            int pos = order[index(sort, i, n)];
+            if (categoryKey != null && !categoryKey.equals(categoryKeys[pos])) {
+                continue;
+            }
+            if (!filter.matchesPrice(products[pos].getPrice())) {
+                continue;
+            }
+            if (matched != null && !matched.get(pos)) {
+                continue;
+            }
+            if (total >= from && content.size() < size) {
+                content.add(products[pos]);
+            }
+            total++;
+        }
+        return new Result(content, total);
+    }
+
+    private Result queryByRelevance(ProductFilter filter, ProductSearchIndex.Matches matches, long from, int size) {
+        Ranking ranking = rank(filter, matches);
+        List<ProductDto> content = new ArrayList<>();
+        for (long i = from; i < ranking.count && content.size() < size; i++) {
+            content.add(products[ranking.positions[(int) i]]);
+        }
+        return new Result(content, ranking.count);
+    }
+
+    /**
+     * Filter and sort the catalog, returning the products after a cursor (keyset pagination)
+     * The start of the page is found by binary search in the pre-sorted permutation,
+     * so the cost does not depend on how deep the page is.
+     *
+     * @param filter Listing filter
+     * @param matches Search matches of the filter query, null if there is no query
+     * @param sort Sort option
+     * @param after Cursor of the previous page, null for the first page
+     * @param size Page size
+     * @return Products of the page and the cursor of the next one
+     */
+    public ScrollResult scroll(ProductFilter filter, ProductSearchIndex.Matches matches, CatalogSort sort,
+                               PageCursor after, int size) {
+        if (matches != null && sort == CatalogSort.RELEVANCE) {
+            return scrollByRelevance(filter, matches, after, size);
+        }
+        int n = products.length;
+        int[] order = orders.get(sort.getKey());
+        int start = 0;
+        if (after != null) {
+            // Ascending: first row above the cursor; descending: walk down from the last row below it
+            start = sort.isDescending()
+                    ? n - bound(order, sort.getKey(), after, false)
+                    : bound(order, sort.getKey(), after, true);
+        }
+
+        String categoryKey = lower(filter.getCategory());
+        BitSet matched = matches != null ? matchedPositions(matches) : null;
+        List<ProductDto> content = new ArrayList<>(Math.max(0, Math.min(size, n)));
+        for (int i = start; i < n; i++) {
+            int pos = order[index(sort, i, n)];
+            if (categoryKey != null && !categoryKey.equals(categoryKeys[pos])) {
+                continue;
+            }
+            if (!filter.matchesPrice(products[pos].getPrice())) {
+                continue;
+            }
+            if (matched != null && !matched.get(pos)) {
+                continue;
+            }
+            if (content.size() == size) {
+                ProductDto last = content.get(size - 1);
+                return new ScrollResult(content, PageCursor.after(sort.name(), sort.getKey().keyOf(last), last.getId()));
+            }
+            content.add(products[pos]);
+        }
+        return new ScrollResult(content, null);
+    }
+
+    private ScrollResult scrollByRelevance(ProductFilter filter, ProductSearchIndex.Matches matches,
+                                           PageCursor after, int size) {
+        Ranking ranking = rank(filter, matches);
+        int start = 0;
+        if (after != null) {
+            float score = after.floatKey();
+            while (start < ranking.count
+                    && (ranking.scores[start] > score
+                    || (ranking.scores[start] == score && ids[ranking.positions[start]] <= after.getId()))) {
+                start++;
+            }
+        }
+        List<ProductDto> content = new ArrayList<>();
+        for (int i = start; i < ranking.count && content.size() < size; i++) {
+            content.add(products[ranking.positions[i]]);
+        }
+        int last = start + content.size() - 1;
+        PageCursor next = last + 1 < ranking.count
+                ? PageCursor.after(CatalogSort.RELEVANCE.name(), ranking.scores[last], ids[ranking.positions[last]])
+                : null;
+        return new ScrollResult(content, next);
+    }
+
+    /**
+     * Rank search matches that pass the category and price filters: best score first, then by ID
+     */
+    private Ranking rank(ProductFilter filter, ProductSearchIndex.Matches matches) {
+        String categoryKey = lower(filter.getCategory());
+        int[] hits = new int[matches.size()];
+        float[] hitScores = new float[matches.size()];
+        int count = 0;
+        for (int i = 0; i < matches.size(); i++) {
+            int pos = position(matches.id(i));
+            if (pos < 0) {
+                continue;
+            }
+            if (categoryKey != null && !categoryKey.equals(categoryKeys[pos])) {
+                continue;
+            }
+            if (!filter.matchesPrice(products[pos].getPrice())) {
+                continue;
+            }
+            hits[count] = pos;
+            hitScores[count++] = matches.score(i);
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Float.compare(hitScores[b], hitScores[a]);
+            return cmp != 0 ? cmp : Integer.compare(hits[a], hits[b]);
+        });
+        Ranking ranking = new Ranking(count);
+        for (int i = 0; i < count; i++) {
+            ranking.positions[i] = hits[order[i]];
+            ranking.scores[i] = hitScores[order[i]];
+        }
+        return ranking;
+    }
+
+    /**
+     * Binary search a permutation for a cursor
+     *
+     * @param order Ascending permutation of a sort key
+     * @param key Sort key
+     * @param after Cursor
+     * @param strict true for the first row after the cursor, false for the first row at or after it
+     * @return Index into the permutation
+     */
+    private int bound(int[] order, CatalogSort.Key key, PageCursor after, boolean strict) {
+        Object cursorKey = key.keyOf(after);
+        int lo = 0;
+        int hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int pos = order[mid];
+            int cmp = compareKey(key, products[pos], cursorKey);
+            if (cmp == 0) {
+                cmp = Long.compare(ids[pos], after.getId());
+            }
+            if (cmp < 0 || (strict && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private BitSet matchedPositions(ProductSearchIndex.Matches matches) {
+        BitSet matched = new BitSet(products.length);
+        for (int i = 0; i < matches.size(); i++) {
+            int pos = position(matches.id(i));
+            if (pos >= 0) {
+                matched.set(pos);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Count matching products per category, brand and price band
+     *
+     * @param filter Listing filter
+     * @param matches Search matches of the filter query, null if there is no query
+     * @return Facet counts
+     */
+    public ProductFacetsDto facets(ProductFilter filter, ProductSearchIndex.Matches matches) {
+        BitSet base;
+        if (matches != null) {
+            base = matchedPositions(matches);
+        } else {
+            base = new BitSet(products.length);
+            base.set(0, products.length);
+        }
+        return facets.count(products, base, filter);
+    }
+
+    /**
+     * Get products of a category in ID order
+     *
+     * @param category Category name (case-insensitive)
+     * @return Products in the category
+     */
+    public List<ProductDto> byCategory(String category) {
+        int[] list = categoryPositions.get(lower(category));
+        if (list == null) {
+            return Collections.emptyList();
+        }
+        List<ProductDto> result = new ArrayList<>(list.length);
+        for (int pos : list) {
+            result.add(products[pos]);
+        }
+        return result;
+    }
+
+    /**
+     * Get an active product by ID
+     *
+     * @param id Product ID
+     * @return Product, or null if not in the snapshot
+     */
+    public ProductDto get(Long id) {
+        int pos = id != null ? position(id) : -1;
+        return pos >= 0 ? products[pos] : null;
+    }
+
+    /**
+     * Get all categories of active products, sorted
+     *
+     * @return Category names
+     */
+    public List<String> categories() {
+        return categories;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    private int position(long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        return pos >= 0 ? pos : -1;
+    }
+
+    private static int index(CatalogSort sort, int i, int n) {
+        return sort.isDescending() ? n - 1 - i : i;
+    }
+
+    /**
+     * Compare a product's sort key with a cursor key, consistently with keyComparator
+     */
+    private static int compareKey(CatalogSort.Key key, ProductDto product, Object cursorKey) {
+        switch (key) {
+            case PRICE:
+                return comparePrice(product.getPrice(), (BigDecimal) cursorKey);
+            case CREATED_AT:
+                return Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())
+                        .compare(product.getCreatedAt(), (LocalDateTime) cursorKey);
+            case SOLD_COUNT:
+                return Long.compare(product.getSoldCount(), (Long) cursorKey);
+            case ID:
+                return Long.compare(product.getId(), (Long) cursorKey);
+            default:
+                return Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)
+                        .compare(product.getName(), (String) cursorKey);
+        }
+    }
+
+    private static boolean sameLayout(ProductDto a, ProductDto b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getBrand(), b.getBrand())
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                && comparePrice(a.getPrice(), b.getPrice()) == 0;
+    }
+
+    private static Comparator<ProductDto> keyComparator(CatalogSort.Key key) {
+        switch (key) {
+            case PRICE:
+                return (a, b) -> comparePrice(a.getPrice(), b.getPrice());
+            case CREATED_AT:
+                return Comparator.comparing(ProductDto::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()));
+            case SOLD_COUNT:
+                return Comparator.comparingLong(ProductDto::getSoldCount);
+            case ID:
+                return Comparator.comparing(ProductDto::getId);
+            default:
+                return Comparator.comparing(ProductDto::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+        }
+    }
+
+    private static int comparePrice(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? -1 : 1);
+        }
+        return a.compareTo(b);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Search matches ranked for relevance ordering
+     */
+    private static final class Ranking {
+        private final int[] positions;
+        private final float[] scores;
+        private final int count;
+
+        private Ranking(int count) {
+            this.positions = new int[count];
+            this.scores = new float[count];
+            this.count = count;
+        }
+    }
+
+    /**
+     * One page of a keyset-paginated catalog query
+     */
+    public static final class ScrollResult {
+        private final List<ProductDto> products;
+        private final PageCursor next;
+
+        public ScrollResult(List<ProductDto> products, PageCursor next) {
+            this.products = products;
+            this.next = next;
+        }
+
+        public List<ProductDto> getProducts() {
+            return products;
+        }
+
+        /**
+         * Cursor of the next page
+         *
+         * @return Cursor, or null on the last page
+         */
+        public PageCursor getNext() {
+            return next;
+        }
+    }
+
+    /**
+     * One page of a catalog query
+     */
+    public static final class Result {
+        private final List<ProductDto> products;
+        private final int total;
+
+        public Result(List<ProductDto> products, int total) {
+            this.products = products;
+            this.total = total;
+        }
+
+        public List<ProductDto> getProducts() {
+            return products;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
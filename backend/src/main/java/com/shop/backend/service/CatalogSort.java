@@ -0,0 +1,145 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort options of the storefront product listing
+ * Each option is an ascending sort key plus a direction; the product ID breaks ties
+ * in the same direction, so the database and the in-memory catalog return the same order.
+ * RELEVANCE ranks search matches by score and falls back to NAME when there is no search query.
+ * BESTSELLING orders by the materialized sales counter (sold_count), most sold first.
+ * ID (product ID order) is the listing order when no sort option is given.
+ */
+public enum CatalogSort {
+
+    NAME(Key.NAME, false),
+    PRICE_LOW(Key.PRICE, false),
+    PRICE_HIGH(Key.PRICE, true),
+    NEWEST(Key.CREATED_AT, true),
+    OLDEST(Key.CREATED_AT, false),
+    RELEVANCE(Key.NAME, false),
+    BESTSELLING(Key.SOLD_COUNT, true),
+    ID(Key.ID, false);
+
+    /**
+     * Sort keys kept as pre-sorted permutations in the catalog snapshot
+     */
+    public enum Key {
+        NAME("name"),
+        PRICE("price"),
+        CREATED_AT("createdAt"),
+        SOLD_COUNT("soldCount"),
+        ID("id");
+
+        private final String property;
+
+        Key(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * Get the value of this key for a product
+         *
+         * @param product Product
+         * @return Name, price, creation time, units sold or ID
+         */
+        public Object keyOf(ProductDto product) {
+            switch (this) {
+                case ID:
+                    return product.getId();
+                case PRICE:
+                    return product.getPrice();
+                case CREATED_AT:
+                    return product.getCreatedAt();
+                case SOLD_COUNT:
+                    return product.getSoldCount();
+                default:
+                    return product.getName();
+            }
+        }
+
+        /**
+         * Get the value of this key stored in a cursor
+         *
+         * @param cursor Pagination cursor
+         * @return Name, price, creation time, units sold or ID
+         */
+        public Object keyOf(PageCursor cursor) {
+            switch (this) {
+                case PRICE:
+                    return cursor.decimalKey();
+                case CREATED_AT:
+                    return cursor.dateTimeKey();
+                case SOLD_COUNT:
+                case ID:
+                    return cursor.longKey();
+                default:
+                    return cursor.getKey();
+            }
+        }
+    }
+
+    private final Key key;
+    private final boolean descending;
+
+    CatalogSort(Key key, boolean descending) {
+        this.key = key;
+        this.descending = descending;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Parse a storefront sort option
+     *
+     * @param sort Sort option (name, price-low, price-high, newest, oldest, createdAt,asc, createdAt,desc, relevance, bestselling)
+     * @return Matching sort, ID when no option is given, NAME for unknown options
+     */
+    public static CatalogSort fromOption(String sort) {
+        if (sort == null) {
+            return ID;
+        }
+        switch (sort) {
+            case "price-low":
+                return PRICE_LOW;
+            case "price-high":
+                return PRICE_HIGH;
+            case "newest":
+            case "createdAt,desc":
+                return NEWEST;
+            case "oldest":
+            case "createdAt,asc":
+                return OLDEST;
+            case "relevance":
+                return RELEVANCE;
+            case "bestselling":
+                return BESTSELLING;
+            default:
+                return NAME;
+        }
+    }
+
+    /**
+     * Equivalent database sort
+     *
+     * @return Sort on the key property with the product ID as tie-breaker
+     */
+    public Sort toSort() {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        if (key == Key.ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, key.property).and(Sort.by(direction, "id"));
+    }
+}
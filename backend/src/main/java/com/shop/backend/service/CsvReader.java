@@ -0,0 +1,121 @@
+package com.shop.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming CSV reader (RFC 4180)
+ * Reads one record at a time through a fixed buffer, so files of any size use constant memory.
+ *
+ * Features:
+ * - Comma separator, double-quoted fields with "" escapes and embedded separators or line breaks
+ * - LF and CRLF line endings, UTF-8 byte order mark skipped
+ * - Blank lines skipped
+ */
+final class CsvReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean started;
+    private long recordNumber;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return Field values, or null at the end of the input
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                // Blank line (or the LF of a CRLF)
+                continue;
+            }
+            recordNumber++;
+            return readRecord(c);
+        }
+    }
+
+    /**
+     * Get the 1-based number of the last record returned (blank lines are not counted)
+     *
+     * @return Record number
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private List<String> readRecord(int first) throws IOException {
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+        int c = first;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field in record " + recordNumber);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+            if (!started) {
+                started = true;
+                if (buffer[0] == '\uFEFF') {
+                    position = 1;
+                    return read();
+                }
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -3,15 +3,14 @@ package com.shop.backend.service;
 import com.shop.backend.entity.Order;
 import com.shop.backend.entity.OrderItem;
 import com.shop.backend.entity.OrderStatus;
-import com.shop.backend.entity.Product;
 import com.shop.backend.entity.User;
-import com.shop.backend.repository.OrderItemRepository;
 import com.shop.backend.repository.OrderRepository;
 import com.shop.backend.repository.ProductRepository;
 import com.shop.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -32,7 +31,8 @@ public class DashboardService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final OrderItemRepository orderItemRepository;
+    private final ProductCache productCache;
+    private final UploadCleanupService uploadCleanupService;
 
     /**
      * Lấy số liệu tổng quan: tổng đơn, doanh thu, khách hàng, sản phẩm
@@ -51,6 +51,20 @@ public class DashboardService {
         return result;
     }
 
+    /**
+     * Thống kê cache sản phẩm: số phần tử, hit, miss, tỉ lệ hit, số lần loại bỏ
+     */
+    public Map<String, Object> getProductCacheStats() {
+        return productCache.getStats();
+    }
+
+    /**
+     * Thống kê dọn dẹp thư mục uploads: số lần chạy, số file đã xóa, dung lượng thu hồi, kết quả lần chạy cuối
+     */
+    public Map<String, Object> getUploadCleanupStats() {
+        return uploadCleanupService.getStats();
+    }
+
     /**
      * Thống kê doanh thu theo ngày (7 ngày gần nhất)
      */
@@ -91,33 +105,20 @@ public class DashboardService {
 
     /**
      * Top 5 sản phẩm bán chạy nhất (theo số lượng)
+     * Đọc bộ đếm sold_count đã tính sẵn (không tính đơn đã hủy), không phải tải toàn bộ order items
      */
     public List<Map<String, Object>> getTopProducts() {
-        // Lấy tất cả order items, group by product, sum quantity
-        List<OrderItem> allOrderItems = orderItemRepository.findAll();
-        
-        // Group by product and sum quantities
-        Map<Product, Long> productQuantities = new HashMap<>();
-        for (OrderItem item : allOrderItems) {
-            Product product = item.getProduct();
-            productQuantities.merge(product, (long) item.getQuantity(), Long::sum);
-        }
-        
-        // Sort by quantity descending and take top 5
-        List<Map<String, Object>> result = productQuantities.entrySet().stream()
-                .sorted(Map.Entry.<Product, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(entry -> {
+        return productRepository.findBestSellingDtos(PageRequest.of(0, 5))
+                .stream()
+                .map(product -> {
                     Map<String, Object> productInfo = new HashMap<>();
-                    productInfo.put("id", entry.getKey().getId());
-                    productInfo.put("name", entry.getKey().getName());
-                    productInfo.put("imageUrl", entry.getKey().getImageUrl());
-                    productInfo.put("quantity", entry.getValue());
+                    productInfo.put("id", product.getId());
+                    productInfo.put("name", product.getName());
+                    productInfo.put("imageUrl", product.getImageUrl());
+                    productInfo.put("quantity", product.getSoldCount());
                     return productInfo;
                 })
                 .collect(Collectors.toList());
-        
-        return result;
     }
 
     /**
@@ -0,0 +1,268 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ImageVariants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Service storing uploaded product images in the uploads directory (served under /uploads/)
+ *
+ * Features:
+ * - Streaming: the multipart temp file is moved (or copied by the container) into place,
+ *   the image is never loaded onto the heap
+ * - Size limit (app.uploads.max-image-bytes, also enforced by the container, see UploadConfig)
+ * - Content type sniffed from the magic bytes (JPEG, PNG, GIF, WebP); the client's file name
+ *   and Content-Type are ignored, and the stored extension comes from the sniffed type
+ * - Content-addressed: stored as <SHA-256 of the content>.<extension>, so identical uploads share one file
+ *   (and one browser cache entry), and a duplicate is detected before anything is written
+ * - Written to a temporary name, then renamed atomically, so a half-written image is never served
+ * - Deletion for the upload sweeper that cannot race with duplicate detection
+ */
+@Service
+@Slf4j
+public class ImageStorageService {
+
+    public static final String UPLOAD_DIR = "uploads";
+    public static final String URL_PREFIX = "/uploads/";
+    private static final int SNIFF_BYTES = 12;
+
+    private static final List<String> EXTENSIONS = List.of("jpg", "png", "gif", "webp");
+
+    private final Object sweepLock = new Object();
+
+    @Value("${app.uploads.max-image-bytes:10485760}")
+    private long maxImageBytes;
+
+    /**
+     * Store an uploaded image
+     *
+     * @param file Uploaded file
+     * @return Public image URL
+     * @throws IllegalArgumentException if the file is empty, too large or not a supported image
+     * @throws RuntimeException if the file cannot be written
+     */
+    public String store(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Image file is empty");
+        }
+        if (file.getSize() > maxImageBytes) {
+            throw new IllegalArgumentException("Image is larger than " + maxImageBytes + " bytes");
+        }
+        // One read of the container's temp file: type from the first bytes, hash over everything
+        String extension;
+        String hash;
+        try (DigestInputStream in = new DigestInputStream(file.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            extension = sniffExtension(in.readNBytes(SNIFF_BYTES));
+            if (extension == null) {
+                throw new IllegalArgumentException("Unsupported image type (JPEG, PNG, GIF or WebP expected)");
+            }
+            in.transferTo(OutputStream.nullOutputStream());
+            hash = HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read image: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        String filename = hash + "." + extension;
+        if (reuse(uploadDir().resolve(filename))) {
+            log.debug("Image {} already stored, upload not written", filename);
+            return URL_PREFIX + filename;
+        }
+        Path temp = null;
+        try {
+            temp = createTempFile();
+            file.transferTo(temp.toAbsolutePath().toFile());
+            // A concurrent upload of the same image may win the rename; the content is identical
+            publish(temp, filename);
+            temp = null;
+            return URL_PREFIX + filename;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save image: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Claim an existing copy of an uploaded image
+     * Its modification time is refreshed, so the upload sweeper treats it as a new upload (grace period)
+     * until the product referencing it is saved.
+     *
+     * @param file Stored image
+     * @return true if the file exists and was claimed, false if it must be written
+     */
+    private boolean reuse(Path file) {
+        synchronized (sweepLock) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (IOException e) {
+                log.warn("Could not reuse stored image {}: {}", file, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Delete a file of the uploads directory unless its image was uploaded or reused recently
+     * Checked under the same lock as duplicate detection, so an image claimed by a new upload is never deleted.
+     *
+     * @param file File in the uploads directory (image, resized copy or temporary file)
+     * @param cutoff Files of the image modified after this time are kept
+     * @return true if the file was deleted
+     * @throws IOException if the file cannot be deleted
+     */
+    public boolean deleteIfUnusedSince(Path file, Instant cutoff) throws IOException {
+        synchronized (sweepLock) {
+            String base = ImageVariants.baseName(file.getFileName().toString());
+            List<Path> checked = new ArrayList<>();
+            checked.add(file);
+            for (String extension : EXTENSIONS) {
+                checked.add(file.resolveSibling(base + "." + extension));
+            }
+            for (Path path : checked) {
+                try {
+                    if (Files.getLastModifiedTime(path).toInstant().isAfter(cutoff)) {
+                        return false;
+                    }
+                } catch (NoSuchFileException e) {
+                    // No such original
+                }
+            }
+            return Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Resolve an image URL to its file in the uploads directory
+     *
+     * @param imageUrl Image URL
+     * @return File path, or null if the URL does not point into the uploads directory
+     */
+    public Path resolve(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String filename = imageUrl.substring(URL_PREFIX.length());
+        if (filename.isEmpty() || filename.contains("/") || filename.contains("\\") || filename.startsWith(".")) {
+            return null;
+        }
+        return Paths.get(UPLOAD_DIR, filename);
+    }
+
+    /**
+     * Create a temporary file in the uploads directory, to be moved into place with publish
+     *
+     * @return Temporary file
+     * @throws IOException if the file cannot be created
+     */
+    Path createTempFile() throws IOException {
+        // Same directory as the target, so the final rename stays on one file system
+        return Files.createTempFile(uploadDir(), ".upload-", ".tmp");
+    }
+
+    /**
+     * Move a finished temporary file to its public name
+     *
+     * @param temp Temporary file from createTempFile
+     * @param filename Name in the uploads directory
+     * @throws IOException if the file cannot be moved
+     */
+    void publish(Path temp, String filename) throws IOException {
+        moveIntoPlace(temp, uploadDir().resolve(filename));
+    }
+
+    /**
+     * Delete a temporary file, logging failures
+     *
+     * @param path File (ignored if null)
+     */
+    void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary upload {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Detect the image type from the first bytes of a file
+     *
+     * @param header First bytes of the file (at least 12 for WebP)
+     * @return File extension (jpg, png, gif, webp), or null if the type is not supported
+     */
+    static String sniffExtension(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8') && header.length >= 6
+                && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... expected) {
+        if (data.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((data[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path uploadDir() {
+        Path dir = Paths.get(UPLOAD_DIR);
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create uploads directory", e);
+        }
+        if (!Files.isWritable(dir)) {
+            throw new RuntimeException("Uploads directory is not writable");
+        }
+        return dir;
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ImageVariants;
+import com.shop.backend.repository.ProductJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background pipeline making resized copies of uploaded product images
+ * The grid and the product page load a copy close to their display width instead of the original upload.
+ *
+ * Features:
+ * - Runs after the upload's transaction commits, on a bounded worker pool (app.images.threads,
+ *   app.images.queue-size): the upload request does not wait, and a burst of uploads cannot pile up
+ * - Fixed widths (WIDTHS), never upscaled; progressive JPEG, or PNG when the image has transparency
+ * - Tiny blurred JPEG placeholder to show while the real image loads
+ * - Large originals are decoded with subsampling, so a phone photo is never decoded at full size
+ * - Copies already made for the same (content-addressed) image are reused, not made again
+ * - Copies are recorded in products.image_variants (see ImageVariants) only if the product still has
+ *   the same image, then the product's caches are refreshed
+ * - Uploaded images without copies (older uploads, full queue, restart, bulk imports) are processed at
+ *   startup and on request, by one background pass at a time
+ *
+ * Images the JDK cannot decode (e.g. WebP) keep only the original.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    public static final int[] WIDTHS = {200, 400, 800};
+    private static final int PLACEHOLDER_WIDTH = 20;
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final float PLACEHOLDER_QUALITY = 0.6f;
+
+    private final ImageStorageService imageStorage;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile boolean backfillRequested;
+
+    public ImageVariantService(ImageStorageService imageStorage,
+                               ProductJdbcRepository productJdbcRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${app.images.threads:2}") int threads,
+                               @Value("${app.images.queue-size:200}") int queueSize) {
+        this.imageStorage = imageStorage;
+        this.productJdbcRepository = productJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        AtomicInteger threadNumbers = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> {
+                    Thread thread = new Thread(task, "image-variants-" + threadNumbers.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> log.warn("Image pipeline queue is full, copies will be made at the next startup"));
+    }
+
+    /**
+     * Queue the new image of a product once its transaction commits
+     *
+     * @param event Image stored event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageStored(ProductImageStoredEvent event) {
+        executor.execute(() -> process(event.getProductId(), event.getImageUrl()));
+    }
+
+    /**
+     * Process uploaded images that have no copies yet, in the background, once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        processMissing();
+    }
+
+    /**
+     * Process uploaded images that have no copies yet, in the background
+     * Used after writes that set many images at once (bulk import) instead of one event per product.
+     * A call during a running pass makes it run once more when it ends.
+     */
+    public void processMissing() {
+        backfillRequested = true;
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                while (backfillRequested) {
+                    backfillRequested = false;
+                    processMissingNow();
+                }
+            } finally {
+                backfillRunning.set(false);
+            }
+            if (backfillRequested) {
+                // Requested between the last pass and the flag reset
+                processMissing();
+            }
+        }, "image-variants-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void processMissingNow() {
+        try {
+            List<Object[]> missing = new ArrayList<>();
+            productJdbcRepository.forEachImageMissingVariants((id, url) -> missing.add(new Object[]{id, url}));
+            if (!missing.isEmpty()) {
+                log.info("Making resized copies of {} product images", missing.size());
+            }
+            for (Object[] image : missing) {
+                process((Long) image[0], (String) image[1]);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Image copies backfill failed", e);
+        }
+    }
+
+    /**
+     * Make the copies of one product image and record them
+     *
+     * @param productId Product ID
+     * @param imageUrl Image URL
+     */
+    void process(Long productId, String imageUrl) {
+        Path source = imageStorage.resolve(imageUrl);
+        if (source == null || !Files.isRegularFile(source)) {
+            return;
+        }
+        String existing = existingVariants(imageUrl);
+        if (existing != null) {
+            record(productId, imageUrl, existing);
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int[] originalWidth = new int[1];
+            BufferedImage image = read(source, originalWidth);
+            if (image == null) {
+                log.info("No resized copies for {}: format not supported", imageUrl);
+                return;
+            }
+            boolean alpha = image.getColorModel().hasAlpha();
+            String format = alpha ? "png" : "jpg";
+            List<Integer> widths = new ArrayList<>();
+            for (int width : WIDTHS) {
+                if (width < originalWidth[0]) {
+                    write(resize(image, width, alpha), ImageVariants.variantUrl(imageUrl, width, format), format, true);
+                    widths.add(width);
+                }
+            }
+            write(placeholder(image), ImageVariants.placeholderUrl(imageUrl), "jpg", false);
+
+            record(productId, imageUrl, ImageVariants.encode(format, widths));
+            log.debug("Resized copies of {} made in {} ms", imageUrl, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not make resized copies of {}: {}", imageUrl, e.getMessage());
+        }
+    }
+
+    private void record(Long productId, String imageUrl, String imageVariants) {
+        if (productJdbcRepository.setImageVariants(productId, imageUrl, imageVariants) == 1) {
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        }
+    }
+
+    /**
+     * Find the copies already made for an image
+     * Images are content-addressed, so a product sharing another product's image reuses its copies.
+     * The placeholder is written last: when it exists, the copies are complete.
+     *
+     * @param imageUrl Image URL
+     * @return Encoded copies, or null if the image has not been processed yet
+     */
+    private String existingVariants(String imageUrl) {
+        Path placeholder = imageStorage.resolve(ImageVariants.placeholderUrl(imageUrl));
+        if (placeholder == null || !Files.isRegularFile(placeholder)) {
+            return null;
+        }
+        for (String format : new String[]{"jpg", "png"}) {
+            List<Integer> widths = new ArrayList<>();
+            for (int width : WIDTHS) {
+                Path copy = imageStorage.resolve(ImageVariants.variantUrl(imageUrl, width, format));
+                if (copy != null && Files.isRegularFile(copy)) {
+                    widths.add(width);
+                }
+            }
+            if (!widths.isEmpty()) {
+                return ImageVariants.encode(format, widths);
+            }
+        }
+        return ImageVariants.encode("jpg", List.of());
+    }
+
+    /**
+     * Decode an image, subsampled when it is much larger than the largest copy
+     *
+     * @param source Image file
+     * @param originalWidth Receives the width of the original image
+     * @return Decoded image, or null if no JDK reader supports the format
+     * @throws IOException if the image cannot be read or is too large
+     */
+    private static BufferedImage read(Path source, int[] originalWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException("image is too large (" + width + "x" + height + ")");
+                }
+                originalWidth[0] = width;
+                // Keep at least twice the largest width, so the copies are still downscaled smoothly
+                int step = Math.max(1, width / (2 * WIDTHS[WIDTHS.length - 1]));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale an image to a width, halving at most per step so detail is averaged rather than dropped
+     */
+    private static BufferedImage resize(BufferedImage source, int width, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            int height = Math.max(1, Math.round((float) source.getHeight() * currentWidth / source.getWidth()));
+            BufferedImage next = new BufferedImage(currentWidth, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, height);
+            }
+            graphics.drawImage(current, 0, 0, currentWidth, height, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    /**
+     * Tiny opaque copy with a box blur, meant to be stretched by the browser
+     */
+    private static BufferedImage placeholder(BufferedImage image) {
+        BufferedImage small = resize(image, Math.min(PLACEHOLDER_WIDTH, image.getWidth()), false);
+        float[] box = new float[9];
+        Arrays.fill(box, 1f / 9);
+        BufferedImage blurred = new BufferedImage(small.getWidth(), small.getHeight(), BufferedImage.TYPE_INT_RGB);
+        return new ConvolveOp(new Kernel(3, 3, box), ConvolveOp.EDGE_NO_OP, null).filter(small, blurred);
+    }
+
+    /**
+     * Encode an image into the uploads directory under the file name of a URL
+     */
+    private void write(BufferedImage image, String url, String format, boolean progressive) throws IOException {
+        Path temp = imageStorage.createTempFile();
+        try {
+            if ("png".equals(format)) {
+                ImageIO.write(image, "png", temp.toFile());
+            } else {
+                writeJpeg(image, temp, progressive ? JPEG_QUALITY : PLACEHOLDER_QUALITY, progressive);
+            }
+            imageStorage.publish(temp, url.substring(ImageStorageService.URL_PREFIX.length()));
+            temp = null;
+        } finally {
+            imageStorage.deleteQuietly(temp);
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target, float quality, boolean progressive)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(progressive ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.shop.backend.service;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Application event published when a customer places an order
+ * Listeners that learn from purchases (frequently bought together) apply it after the transaction commits
+ *
+ * Features:
+ * - Carries the order ID and the distinct products of the order
+ */
+@Getter
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+    private final Set<Long> productIds;
+
+    /**
+     * Create an order placed event
+     *
+     * @param orderId Order ID
+     * @param productIds Products of the order (duplicates are ignored)
+     */
+    public OrderPlacedEvent(Long orderId, Collection<Long> productIds) {
+        this.orderId = orderId;
+        this.productIds = Collections.unmodifiableSet(new LinkedHashSet<>(productIds));
+    }
+}
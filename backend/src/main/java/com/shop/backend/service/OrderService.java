@@ -2,22 +2,35 @@ package com.shop.backend.service;
 
 import com.shop.backend.dto.CreateOrderRequest;
 import com.shop.backend.dto.OrderDto;
+import com.shop.backend.dto.SparseFields;
 import com.shop.backend.entity.*;
 import com.shop.backend.repository.OrderItemRepository;
+import com.shop.backend.repository.OrderItemRow;
 import com.shop.backend.repository.OrderRepository;
+import com.shop.backend.repository.OrderRow;
+import com.shop.backend.repository.OrderRowRepository;
+import com.shop.backend.repository.OrderSpecifications;
 import com.shop.backend.repository.ProductRepository;
 import com.shop.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Service class for Order business logic
@@ -29,6 +42,10 @@ import java.util.HashMap;
  * - Business logic validation
  * - Transaction management
  * - DTO conversion
+ * - List views read OrderRow / OrderItemRow projections: two queries per list, only the displayed columns;
+ *   filtered and paged lists select the rows through OrderRowRepository, never loading Order entities
+ * - Product sales counters follow order creation, cancellation and deletion (ProductSalesService)
+ * - Placed orders feed the frequently-bought-together model (OrderPlacedEvent)
  */
 @Service
 @RequiredArgsConstructor
@@ -36,9 +53,14 @@ import java.util.HashMap;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderRowRepository orderRowRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final ProductSalesService productSalesService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_IDS_PER_QUERY = 1000;
 
     /**
      * Create a new order from cart items
@@ -87,6 +109,12 @@ public class OrderService {
 
         // Save order (this will also save order items due to cascade)
         Order savedOrder = orderRepository.save(order);
+        productSalesService.recordSale(savedOrder);
+        publishStockChange(savedOrder);
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder.getId(), savedOrder.getOrderItems()
+                .stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toList())));
         
         return convertToDto(savedOrder);
     }
@@ -102,10 +130,7 @@ public class OrderService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return orderRepository.findByUser(user)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(orderRepository.findRowsByUser(user));
     }
 
     /**
@@ -123,7 +148,7 @@ public class OrderService {
         Order order = orderRepository.findByIdAndUser(orderId, user)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        return convertToDto(order);
+        return convertToDtos(List.of(order), true).get(0);
     }
 
     /**
@@ -133,10 +158,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public List<OrderDto> getAllOrders() {
-        return orderRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(orderRepository.findAllRows());
     }
 
     /**
@@ -150,14 +172,12 @@ public class OrderService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return orderRepository.findByUser(user)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(orderRepository.findRowsByUser(user));
     }
 
     /**
      * Update order status (admin only)
+     * Moving into or out of a cancelled status updates the product sales counters.
      * 
      * @param orderId Order ID
      * @param status New status
@@ -172,8 +192,12 @@ public class OrderService {
             throw new IllegalStateException("Không thể thay đổi trạng thái đơn hàng đã bị khách hàng hủy");
         }
         
+        OrderStatus previous = order.getStatus();
         order.setStatus(status);
         Order savedOrder = orderRepository.save(order);
+        if (productSalesService.onStatusChange(savedOrder, previous, status)) {
+            publishStockChange(savedOrder);
+        }
         return convertToDto(savedOrder);
     }
 
@@ -195,16 +219,22 @@ public class OrderService {
 
     /**
      * Delete an order
+     * The quantities of an order that is not cancelled are removed from the product sales counters.
      * 
      * @param orderId Order ID
      * @return true if order was deleted, false if not found
      */
     public boolean deleteOrder(Long orderId) {
-        if (orderRepository.existsById(orderId)) {
-            orderRepository.deleteById(orderId);
-            return true;
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty()) {
+            return false;
         }
-        return false;
+        if (ProductSalesService.countsAsSold(order.get().getStatus())) {
+            productSalesService.revertSale(order.get());
+            publishStockChange(order.get());
+        }
+        orderRepository.delete(order.get());
+        return true;
     }
 
     /**
@@ -242,10 +272,24 @@ public class OrderService {
         // Update order status to CANCELLED
         order.setStatus(OrderStatus.CUSTOMER_CANCELLED);
         Order savedOrder = orderRepository.save(order);
+        productSalesService.revertSale(savedOrder);
+        publishStockChange(savedOrder);
         
         return convertToDto(savedOrder);
     }
 
+    /**
+     * Notify catalog listeners that the stock or sales of the order's products changed
+     *
+     * @param order Order whose items changed stock or sales
+     */
+    private void publishStockChange(Order order) {
+        eventPublisher.publishEvent(ProductChangedEvent.of(order.getOrderItems()
+                .stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toList())));
+    }
+
     /**
      * Convert Order entity to OrderDto
      * 
@@ -253,29 +297,81 @@ public class OrderService {
      * @return OrderDto
      */
     private OrderDto convertToDto(Order order) {
+        List<OrderDto.OrderItemDto> orderItemDtos = order.getOrderItems()
+                .stream()
+                .map(this::convertOrderItemToDto)
+                .collect(Collectors.toList());
+        return toDto(OrderRow.of(order), orderItemDtos);
+    }
+
+    /**
+     * Convert loaded orders to DTOs
+     * The items are read with one projection query instead of initializing each order's collection.
+     *
+     * @param orders Order entities
+     * @param includeItems Read the order items (false leaves orderItems null and skips the item query)
+     * @return OrderDtos, same order
+     */
+    private List<OrderDto> convertToDtos(List<Order> orders, boolean includeItems) {
+        return toDtos(orders.stream().map(OrderRow::of).collect(Collectors.toList()), includeItems);
+    }
+
+    /**
+     * Convert order rows to DTOs, reading the items of all orders with one projection query
+     *
+     * @param rows Order rows
+     * @return OrderDtos, same order
+     */
+    private List<OrderDto> toDtos(List<OrderRow> rows) {
+        return toDtos(rows, true);
+    }
+
+    private List<OrderDto> toDtos(List<OrderRow> rows, boolean includeItems) {
+        if (!includeItems) {
+            return rows.stream().map(row -> toDto(row, null)).collect(Collectors.toList());
+        }
+        Map<Long, List<OrderDto.OrderItemDto>> items = new HashMap<>();
+        List<Long> orderIds = rows.stream().map(OrderRow::getId).collect(Collectors.toList());
+        for (int from = 0; from < orderIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = orderIds.subList(from, Math.min(orderIds.size(), from + MAX_IDS_PER_QUERY));
+            for (OrderItemRow item : orderItemRepository.findRowsByOrderIds(chunk)) {
+                items.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>()).add(toItemDto(item));
+            }
+        }
+        return rows.stream()
+                .map(row -> toDto(row, items.getOrDefault(row.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private OrderDto toDto(OrderRow order, List<OrderDto.OrderItemDto> orderItems) {
         OrderDto orderDto = new OrderDto();
         orderDto.setId(order.getId());
-        orderDto.setUserId(order.getUser().getId());
+        orderDto.setUserId(order.getUserId());
         orderDto.setCustomerName(order.getCustomerName());
         orderDto.setCustomerEmail(order.getCustomerEmail());
         orderDto.setShippingAddress(order.getShippingAddress());
         orderDto.setCustomerPhone(order.getCustomerPhone());
         orderDto.setTotalPrice(order.getTotalPrice());
         orderDto.setOrderDate(order.getOrderDate());
-        orderDto.setStatus(order.getStatus().name());
+        orderDto.setStatus(order.getStatus() != null ? order.getStatus().name() : null);
         orderDto.setPaymentMethod(order.getPaymentMethod());
         orderDto.setPaymentStatus(order.getPaymentStatus() != null ? order.getPaymentStatus().name() : "UNKNOWN");
-
-        // Convert order items
-        List<OrderDto.OrderItemDto> orderItemDtos = order.getOrderItems()
-                .stream()
-                .map(this::convertOrderItemToDto)
-                .collect(Collectors.toList());
-        orderDto.setOrderItems(orderItemDtos);
-
+        orderDto.setOrderItems(orderItems);
         return orderDto;
     }
 
+    private OrderDto.OrderItemDto toItemDto(OrderItemRow item) {
+        OrderDto.OrderItemDto dto = new OrderDto.OrderItemDto();
+        dto.setId(item.getId());
+        dto.setProductId(item.getProductId());
+        dto.setProductName(item.getProductName());
+        dto.setProductImageUrl(item.getProductImageUrl());
+        dto.setQuantity(item.getQuantity());
+        dto.setUnitPrice(item.getUnitPrice());
+        dto.setSubtotal(item.getSubtotal());
+        return dto;
+    }
+
     /**
      * Convert OrderItem entity to OrderItemDto
      * 
@@ -296,91 +392,54 @@ public class OrderService {
 
     /**
      * Get all orders with pagination, status filter, and sorting (admin only)
+     * Filtering, sorting and paging run in the database.
+     * With a cursor the page is located by keyset (seek) instead of an offset, so deep pages cost
+     * the same as the first one and stay stable while new orders are inserted.
      * 
-     * @param page Page number (0-based)
+     * @param page Page number (0-based, ignored in cursor mode)
      * @param size Page size
      * @param status Order status filter (optional)
      * @param sort Sort option (e.g. orderDate,desc)
      * @param keyword Keyword for search (optional)
+     * @param cursor Keyset cursor (optional: null for page mode, empty for the first page in cursor mode)
+     * @param fields Requested properties: only their columns are selected, and the items only when orderItems is included
      * @return Map containing orders, pagination info
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for another sort
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> getAllOrdersWithPagination(int page, int size, String status, String sort, String keyword) {
-        List<Order> allOrders;
+    public Map<String, Object> getAllOrdersWithPagination(int page, int size, String status, String sort, String keyword, String cursor, SparseFields fields) {
+        Specification<Order> spec;
         // Nếu có keyword thì search theo keyword
         if (keyword != null && !keyword.trim().isEmpty()) {
-            allOrders = orderRepository.searchOrdersByKeyword(keyword.trim());
+            spec = OrderSpecifications.matchesKeyword(keyword.trim());
         } else if (status != null && !status.isEmpty()) {
             try {
-                OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-                allOrders = orderRepository.findByStatus(orderStatus);
+                spec = OrderSpecifications.hasStatus(OrderStatus.valueOf(status.toUpperCase()));
             } catch (IllegalArgumentException e) {
-                allOrders = new ArrayList<>();
+                spec = (root, query, cb) -> cb.disjunction();
             }
         } else {
-            allOrders = orderRepository.findAll();
+            spec = Specification.where(null);
         }
-        
-        // Sort
-        String sortField = "orderDate";
-        boolean desc = true;
-        if (sort != null && !sort.isEmpty()) {
-            String[] parts = sort.split(",");
-            sortField = parts[0];
-            if (parts.length > 1) {
-                desc = parts[1].equalsIgnoreCase("desc");
-            }
+        OrderSort orderSort = OrderSort.parse(sort);
+
+        if (cursor != null) {
+            return scrollOrders(spec, orderSort, cursor, size, fields);
         }
-        final String finalSortField = sortField;
-        final boolean finalDesc = desc;
-        allOrders.sort((o1, o2) -> {
-            int cmp = 0;
-            switch (finalSortField) {
-                case "orderDate":
-                    cmp = o1.getOrderDate().compareTo(o2.getOrderDate());
-                    break;
-                case "customerName":
-                    cmp = o1.getCustomerName().compareToIgnoreCase(o2.getCustomerName());
-                    break;
-                case "status":
-                    cmp = o1.getStatus().name().compareTo(o2.getStatus().name());
-                    break;
-                case "totalPrice":
-                    cmp = o1.getTotalPrice().compareTo(o2.getTotalPrice());
-                    break;
-                case "id":
-                    cmp = o1.getId().compareTo(o2.getId());
-                    break;
-                default:
-                    cmp = o1.getOrderDate().compareTo(o2.getOrderDate());
-            }
-            return finalDesc ? -cmp : cmp;
-        });
-        
-        // Calculate pagination
-        int totalElements = allOrders.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        
-        // Apply pagination
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, totalElements);
-        
-        List<Order> paginatedOrders = allOrders.subList(startIndex, endIndex);
-        
-        // Convert to DTOs
-        List<OrderDto> orderDtos = paginatedOrders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+
+        Page<OrderRow> result = orderRowRepository.findRows(spec, PageRequest.of(page, size, orderSort.toSort()),
+                orderSort.columns(fields));
+        List<OrderDto> orderDtos = toDtos(result.getContent(), fields.includes("orderItems"));
         
         // Build response
         Map<String, Object> response = new HashMap<>();
         response.put("content", orderDtos);
-        response.put("totalElements", totalElements);
-        response.put("totalPages", totalPages);
+        response.put("totalElements", result.getTotalElements());
+        response.put("totalPages", result.getTotalPages());
         response.put("currentPage", page);
         response.put("pageSize", size);
-        response.put("hasNext", page < totalPages - 1);
-        response.put("hasPrevious", page > 0);
+        response.put("hasNext", result.hasNext());
+        response.put("hasPrevious", result.hasPrevious());
         
         return response;
     }
@@ -400,10 +459,10 @@ public class OrderService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<Order> orders = orderRepository.findByUser(user);
+        List<OrderRow> orders = orderRepository.findRowsByUser(user);
         
         // Apply filters
-        List<Order> filteredOrders = orders.stream()
+        List<OrderRow> filteredOrders = orders.stream()
                 .filter(order -> {
                     // Status filter
                     if (status != null && !status.trim().isEmpty()) {
@@ -456,107 +515,207 @@ public class OrderService {
             filteredOrders.sort((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()));
         }
         
-        return filteredOrders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(filteredOrders);
     }
 
     /**
      * Get all orders for a specific user by username with filtering, sorting and pagination
+     * Filtering, sorting and paging run in the database; see getAllOrdersWithPagination for cursor mode.
      * 
      * @param username Username
      * @param status Order status filter (optional)
      * @param startDate Start date filter (optional: yyyy-MM-dd)
      * @param endDate End date filter (optional: yyyy-MM-dd)
      * @param sort Sort option (orderDate,desc or orderDate,asc)
-     * @param page Page number (0-based)
+     * @param page Page number (0-based, ignored in cursor mode)
      * @param size Page size
+     * @param cursor Keyset cursor (optional: null for page mode, empty for the first page in cursor mode)
+     * @param fields Requested properties: only their columns are selected, and the items only when orderItems is included
      * @return Map with orders, pagination metadata
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for another sort
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> getOrdersByUsernameWithFilterAndPagination(String username, String status, String startDate, String endDate, String sort, int page, int size) {
+    public Map<String, Object> getOrdersByUsernameWithFilterAndPagination(String username, String status, String startDate, String endDate, String sort, int page, int size, String cursor, SparseFields fields) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<Order> allOrders = orderRepository.findByUser(user);
-        
-        // Apply filters
-        List<Order> filteredOrders = allOrders.stream()
-                .filter(order -> {
-                    // Status filter
-                    if (status != null && !status.trim().isEmpty()) {
-                        try {
-                            OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-                            if (order.getStatus() != orderStatus) {
-                                return false;
-                            }
-                        } catch (IllegalArgumentException e) {
-                            // Invalid status, skip this filter
-                        }
-                    }
-                    
-                    // Date range filter
-                    if (startDate != null && !startDate.trim().isEmpty()) {
-                        try {
-                            java.time.LocalDate start = java.time.LocalDate.parse(startDate);
-                            if (order.getOrderDate().toLocalDate().isBefore(start)) {
-                                return false;
-                            }
-                        } catch (Exception e) {
-                            // Invalid date format, skip this filter
-                        }
-                    }
-                    
-                    if (endDate != null && !endDate.trim().isEmpty()) {
-                        try {
-                            java.time.LocalDate end = java.time.LocalDate.parse(endDate);
-                            if (order.getOrderDate().toLocalDate().isAfter(end)) {
-                                return false;
-                            }
-                        } catch (Exception e) {
-                            // Invalid date format, skip this filter
-                        }
-                    }
-                    
-                    return true;
-                })
-                .collect(Collectors.toList());
-        
-        // Apply sorting
-        if (sort != null && sort.contains("orderDate")) {
-            boolean ascending = sort.contains("asc");
-            filteredOrders.sort((o1, o2) -> {
-                int comparison = o1.getOrderDate().compareTo(o2.getOrderDate());
-                return ascending ? comparison : -comparison;
-            });
-        } else {
-            // Default: newest first
-            filteredOrders.sort((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()));
+        Specification<Order> spec = OrderSpecifications.placedBy(user);
+        // Status filter
+        if (status != null && !status.trim().isEmpty()) {
+            try {
+                spec = spec.and(OrderSpecifications.hasStatus(OrderStatus.valueOf(status.toUpperCase())));
+            } catch (IllegalArgumentException e) {
+                // Invalid status, skip this filter
+            }
         }
-        
-        // Apply pagination
-        int totalElements = filteredOrders.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, totalElements);
-        
-        List<Order> pagedOrders = filteredOrders.subList(startIndex, endIndex);
-        
-        // Convert to DTOs
-        List<OrderDto> orderDtos = pagedOrders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        // Date range filter
+        if (startDate != null && !startDate.trim().isEmpty()) {
+            try {
+                spec = spec.and(OrderSpecifications.placedFrom(java.time.LocalDate.parse(startDate).atStartOfDay()));
+            } catch (Exception e) {
+                // Invalid date format, skip this filter
+            }
+        }
+        if (endDate != null && !endDate.trim().isEmpty()) {
+            try {
+                spec = spec.and(OrderSpecifications.placedBefore(java.time.LocalDate.parse(endDate).plusDays(1).atStartOfDay()));
+            } catch (Exception e) {
+                // Invalid date format, skip this filter
+            }
+        }
+        // Only order date sorting is offered to users; newest first by default
+        OrderSort orderSort = new OrderSort("orderDate", sort == null || !sort.contains("orderDate") || !sort.contains("asc"));
+
+        if (cursor != null) {
+            return scrollOrders(spec, orderSort, cursor, size, fields);
+        }
+
+        Page<OrderRow> result = orderRowRepository.findRows(spec, PageRequest.of(page, size, orderSort.toSort()),
+                orderSort.columns(fields));
+        List<OrderDto> orderDtos = toDtos(result.getContent(), fields.includes("orderItems"));
         
         // Build response
         Map<String, Object> response = new HashMap<>();
         response.put("content", orderDtos);
-        response.put("totalElements", totalElements);
-        response.put("totalPages", totalPages);
+        response.put("totalElements", result.getTotalElements());
+        response.put("totalPages", result.getTotalPages());
         response.put("currentPage", page);
         response.put("size", size);
-        response.put("first", page == 0);
-        response.put("last", page >= totalPages - 1);
+        response.put("first", result.isFirst());
+        response.put("last", result.isLast());
         
         return response;
     }
+
+    /**
+     * Read one keyset page of orders
+     *
+     * @param spec Order filter
+     * @param orderSort Sort
+     * @param cursor Cursor returned with the previous page (empty for the first page)
+     * @param size Page size
+     * @param fields Requested properties
+     * @return Map with content, size, nextCursor (null on the last page) and hasNext
+     */
+    private Map<String, Object> scrollOrders(Specification<Order> spec, OrderSort orderSort, String cursor, int size, SparseFields fields) {
+        PageCursor after = cursor.isEmpty() ? null : PageCursor.decode(cursor, orderSort.option());
+        Object afterKey = after == null || orderSort.field.equals("id") ? null : orderSort.keyOf(after);
+        // One row more than the page tells whether there is a next page
+        List<OrderRow> orders = orderRowRepository.findRowsAfter(spec, orderSort.toSort(), orderSort.field,
+                afterKey, after == null ? null : after.getId(), size + 1, orderSort.columns(fields));
+        boolean hasNext = orders.size() > size;
+        if (hasNext) {
+            orders = orders.subList(0, size);
+        }
+        PageCursor next = null;
+        if (hasNext && !orders.isEmpty()) {
+            OrderRow last = orders.get(orders.size() - 1);
+            next = PageCursor.after(orderSort.option(), orderSort.keyOf(last), last.getId());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", toDtos(orders, fields.includes("orderItems")));
+        response.put("size", size);
+        response.put("nextCursor", next != null ? next.encode() : null);
+        response.put("hasNext", next != null);
+        return response;
+    }
+
+    /**
+     * Sort of an order listing: one whitelisted field plus the order ID as tie-breaker,
+     * both in the same direction
+     */
+    private static final class OrderSort {
+
+        private static final List<String> FIELDS = List.of("orderDate", "customerName", "status", "totalPrice", "id");
+
+        private final String field;
+        private final boolean descending;
+
+        private OrderSort(String field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+
+        /**
+         * Parse a sort option such as "orderDate,desc"; unknown fields fall back to orderDate
+         */
+        private static OrderSort parse(String sort) {
+            String field = "orderDate";
+            boolean desc = true;
+            if (sort != null && !sort.isEmpty()) {
+                String[] parts = sort.split(",");
+                if (FIELDS.contains(parts[0])) {
+                    field = parts[0];
+                }
+                if (parts.length > 1) {
+                    desc = parts[1].equalsIgnoreCase("desc");
+                }
+            }
+            return new OrderSort(field, desc);
+        }
+
+        private String option() {
+            return field + "," + (descending ? "desc" : "asc");
+        }
+
+        private Sort toSort() {
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = Sort.by(direction, "id");
+            return field.equals("id") ? sort : Sort.by(direction, field).and(sort);
+        }
+
+        /**
+         * Columns to select for a field selection: the requested ones plus the ID and the sort field,
+         * which the cursor of the next page is built from
+         */
+        private Set<String> columns(SparseFields fields) {
+            Set<String> columns = new HashSet<>();
+            for (String column : OrderRowRepository.COLUMNS) {
+                if (fields.includes(column)) {
+                    columns.add(column);
+                }
+            }
+            columns.add("id");
+            columns.add(field);
+            return columns;
+        }
+
+        private Object keyOf(OrderRow order) {
+            switch (field) {
+                case "customerName":
+                    return order.getCustomerName();
+                case "status":
+                    return order.getStatus();
+                case "totalPrice":
+                    return order.getTotalPrice();
+                case "id":
+                    return null;
+                default:
+                    return order.getOrderDate();
+            }
+        }
+
+        private Object keyOf(PageCursor cursor) {
+            // Every sort column is NOT NULL, so a cursor without a key was not issued by us
+            if (cursor.getKey() == null) {
+                throw new IllegalArgumentException("Invalid pagination cursor");
+            }
+            try {
+                switch (field) {
+                    case "customerName":
+                        return cursor.getKey();
+                    case "status":
+                        return OrderStatus.valueOf(cursor.getKey());
+                    case "totalPrice":
+                        return cursor.decimalKey();
+                    default:
+                        return cursor.dateTimeKey();
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // Unknown status name; NumberFormatException is an IllegalArgumentException too
+                throw new IllegalArgumentException("Invalid pagination cursor");
+            }
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.shop.backend.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset (seek) pagination
+ * Encodes the sort option plus the sort key and ID of the last row of a page.
+ * The next page starts strictly after that row, so a deep page costs the same as the first one
+ * and rows inserted in the meantime do not shift or duplicate results.
+ *
+ * The token is opaque to clients: URL-safe Base64 without padding.
+ */
+public final class PageCursor {
+
+    private static final String INVALID = "Invalid pagination cursor";
+
+    private final String sort;
+    private final String key;
+    private final long id;
+
+    private PageCursor(String sort, String key, long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Create a cursor pointing after a row
+     *
+     * @param sort Sort option the page was produced with
+     * @param key Sort key of the last row (null if the key is null or the sort is by ID only)
+     * @param id ID of the last row
+     * @return Cursor
+     */
+    public static PageCursor after(String sort, Object key, long id) {
+        String value = key == null ? null
+                : key instanceof BigDecimal ? ((BigDecimal) key).toPlainString()
+                : key.toString();
+        return new PageCursor(sort, value, id);
+    }
+
+    /**
+     * Decode a cursor received from a client
+     *
+     * @param token Encoded cursor
+     * @param sort Sort option of the current request; a cursor made for another sort is rejected
+     * @return Decoded cursor
+     * @throws IllegalArgumentException if the token is malformed or was issued for another sort
+     */
+    public static PageCursor decode(String token, String sort) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+        String[] parts = decoded.split("\n", 3);
+        if (parts.length != 3 || !parts[0].equals(sort)) {
+            throw new IllegalArgumentException(INVALID);
+        }
+        try {
+            String key = parts[2].isEmpty() ? null : parts[2].substring(1);
+            return new PageCursor(parts[0], key, Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    /**
+     * Encode the cursor for a client
+     *
+     * @return Opaque token
+     */
+    public String encode() {
+        String value = sort + "\n" + id + "\n" + (key == null ? "" : "=" + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public BigDecimal decimalKey() {
+        try {
+            return key == null ? null : new BigDecimal(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    public LocalDateTime dateTimeKey() {
+        try {
+            return key == null ? null : LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    public long longKey() {
+        try {
+            return key == null ? 0 : Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    public float floatKey() {
+        try {
+            return key == null ? 0 : Float.parseFloat(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.RelatedRebuildResultDto;
+import com.shop.backend.repository.OrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Frequently-bought-together model built from order co-occurrence
+ * Two products are related when they were bought in the same order; the more orders they share,
+ * the stronger the relation.
+ *
+ * Features:
+ * - Incremental: each placed order updates its products once it commits (OrderPlacedEvent)
+ * - Bounded memory: at most MAX_CANDIDATES partner counts per product, in primitive arrays. Past that,
+ *   a new partner replaces the weakest one and inherits its count (space-saving), which can overrate
+ *   recent partners until the next rebuild
+ * - Constant-time reads: the top MAX_RELATED partners of every product are kept precomputed
+ * - Full rebuild from the order history, on startup and on demand: order items are streamed once,
+ *   then pairs are counted exactly by a parallel fork/join pass over the orders
+ *
+ * Cancelled orders are left out of a rebuild; live updates do not subtract cancellations.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductAssociations {
+
+    public static final int MAX_RELATED = 10;
+    private static final int MAX_CANDIDATES = 64;
+    /** Products of one order counted at most: pairs grow with the square of the order size */
+    private static final int MAX_BASKET_ITEMS = 50;
+    private static final int BASKETS_PER_TASK = 4096;
+    private static final long[] NONE = new long[0];
+
+    private final OrderItemRepository orderItemRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private Map<Long, Candidates> candidates = new HashMap<>();
+    // Guarded by lock; orders placed while a rebuild runs, null when no rebuild runs
+    private List<OrderPlacedEvent> pending;
+    private volatile Map<Long, long[]> related = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Get the products most often bought together with a product
+     *
+     * @param productId Product ID
+     * @return Product IDs, strongest relation first (at most MAX_RELATED, empty if none); must not be modified
+     */
+    public long[] related(Long productId) {
+        long[] ids = related.get(productId);
+        return ids != null ? ids : NONE;
+    }
+
+    /**
+     * Check whether the model was built from the order history at least once
+     *
+     * @return false until the first rebuild finishes
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Learn from an order once it commits
+     *
+     * @param event Order placed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            for (Long productId : apply(candidates, event.getProductIds())) {
+                related.put(productId, candidates.get(productId).top(MAX_RELATED));
+            }
+        }
+    }
+
+    /**
+     * Build the model from the order history once the application is ready
+     * Runs in the background: related products stay empty until it finishes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Frequently bought together rebuild failed", e);
+            }
+        }, "related-products-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuild the model from all orders that are not cancelled
+     * Orders placed while the history is read are applied on top of the result, so none is lost.
+     *
+     * @return Rebuild statistics
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public RelatedRebuildResultDto rebuild() {
+        synchronized (lock) {
+            if (pending != null) {
+                throw new IllegalStateException("A rebuild of related products is already running");
+            }
+            pending = new ArrayList<>();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Baskets baskets = loadBaskets();
+            PairCounts pairs = baskets.orders == 0
+                    ? new PairCounts()
+                    : ForkJoinPool.commonPool().invoke(new PairCountTask(baskets, 0, baskets.orders));
+            Map<Long, Candidates> rebuilt = toCandidates(baskets, pairs);
+
+            int products;
+            synchronized (lock) {
+                for (OrderPlacedEvent event : pending) {
+                    if (!baskets.contains(event.getOrderId())) {
+                        apply(rebuilt, event.getProductIds());
+                    }
+                }
+                Map<Long, long[]> tops = new ConcurrentHashMap<>(rebuilt.size() * 2);
+                rebuilt.forEach((productId, partners) -> tops.put(productId, partners.top(MAX_RELATED)));
+                candidates = rebuilt;
+                related = tops;
+                loaded = true;
+                products = tops.size();
+            }
+            long duration = System.currentTimeMillis() - start;
+            log.info("Frequently bought together rebuilt from {} orders: {} pairs, {} products in {} ms",
+                    baskets.orders, pairs.size, products, duration);
+            return new RelatedRebuildResultDto(baskets.orders, baskets.items, pairs.size, products, duration);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Count one order into a model
+     *
+     * @return Products whose partners changed
+     */
+    private static List<Long> apply(Map<Long, Candidates> model, Collection<Long> productIds) {
+        List<Long> basket = new ArrayList<>(Math.min(productIds.size(), MAX_BASKET_ITEMS));
+        for (Long productId : productIds) {
+            if (basket.size() == MAX_BASKET_ITEMS) {
+                break;
+            }
+            basket.add(productId);
+        }
+        if (basket.size() < 2) {
+            return List.of();
+        }
+        for (Long productId : basket) {
+            Candidates partners = model.computeIfAbsent(productId, id -> new Candidates());
+            for (Long other : basket) {
+                if (!other.equals(productId)) {
+                    partners.add(other, 1);
+                }
+            }
+        }
+        return basket;
+    }
+
+    /**
+     * Read the products of every order that is not cancelled, in one streamed query
+     */
+    private Baskets loadBaskets() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Baskets baskets = new Baskets();
+        transaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = orderItemRepository.streamOrderProducts()) {
+                rows.forEach(row -> baskets.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+            }
+        });
+        baskets.finish();
+        return baskets;
+    }
+
+    /**
+     * Keep the strongest partners of every product from exact pair counts
+     */
+    private static Map<Long, Candidates> toCandidates(Baskets baskets, PairCounts pairs) {
+        Candidates[] byIndex = new Candidates[baskets.productIds.length];
+        for (int slot = 0; slot < pairs.keys.length; slot++) {
+            long key = pairs.keys[slot];
+            if (key == 0) {
+                continue;
+            }
+            int a = (int) (key >>> 32);
+            int b = (int) key;
+            int count = pairs.counts[slot];
+            if (byIndex[a] == null) {
+                byIndex[a] = new Candidates();
+            }
+            if (byIndex[b] == null) {
+                byIndex[b] = new Candidates();
+            }
+            byIndex[a].offer(baskets.productIds[b], count);
+            byIndex[b].offer(baskets.productIds[a], count);
+        }
+        Map<Long, Candidates> model = new HashMap<>(byIndex.length * 2);
+        for (int i = 0; i < byIndex.length; i++) {
+            if (byIndex[i] != null) {
+                model.put(baskets.productIds[i], byIndex[i]);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Partners of one product with their co-occurrence counts
+     */
+    private static final class Candidates {
+        private long[] ids = new long[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        /**
+         * Add to a partner's count (live orders); a new partner evicts the weakest when full
+         */
+        private void add(long id, int count) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    counts[i] += count;
+                    return;
+                }
+            }
+            if (size < MAX_CANDIDATES) {
+                append(id, count);
+                return;
+            }
+            int weakest = weakest();
+            ids[weakest] = id;
+            counts[weakest] += count;
+        }
+
+        /**
+         * Offer an exact total (rebuild); only the largest MAX_CANDIDATES are kept
+         */
+        private void offer(long id, int count) {
+            if (size < MAX_CANDIDATES) {
+                append(id, count);
+                return;
+            }
+            int weakest = weakest();
+            if (count > counts[weakest]) {
+                ids[weakest] = id;
+                counts[weakest] = count;
+            }
+        }
+
+        private void append(long id, int count) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(size * 2, MAX_CANDIDATES));
+                counts = Arrays.copyOf(counts, ids.length);
+            }
+            ids[size] = id;
+            counts[size++] = count;
+        }
+
+        private int weakest() {
+            int weakest = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[weakest]) {
+                    weakest = i;
+                }
+            }
+            return weakest;
+        }
+
+        /**
+         * Strongest partners: highest count first, then lowest ID
+         */
+        private long[] top(int limit) {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                int j = i;
+                while (j > 0 && stronger(i, order[j - 1])) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = i;
+            }
+            long[] top = new long[Math.min(limit, size)];
+            for (int i = 0; i < top.length; i++) {
+                top[i] = ids[order[i]];
+            }
+            return top;
+        }
+
+        private boolean stronger(int a, int b) {
+            return counts[a] != counts[b] ? counts[a] > counts[b] : ids[a] < ids[b];
+        }
+    }
+
+    /**
+     * Order history in flat primitive arrays
+     * The products of order i are itemIndexes[offsets[i]] until offsets[i + 1], as indexes into
+     * productIds, distinct and ascending within each order.
+     */
+    private static final class Baskets {
+        private long[] orderIds = new long[1024];
+        private int[] offsets = new int[1025];
+        private long[] rawItems = new long[4096];
+        private int orders;
+        private int items;
+        private long[] productIds;
+        private int[] itemIndexes;
+
+        /**
+         * Add one order item; items must arrive grouped by order, orders in ascending ID order
+         */
+        private void add(long orderId, long productId) {
+            if (orders == 0 || orderIds[orders - 1] != orderId) {
+                closeLast();
+                if (orders == orderIds.length) {
+                    orderIds = Arrays.copyOf(orderIds, orders * 2);
+                    offsets = Arrays.copyOf(offsets, orders * 2 + 1);
+                }
+                orderIds[orders++] = orderId;
+            }
+            if (items == rawItems.length) {
+                rawItems = Arrays.copyOf(rawItems, items * 2);
+            }
+            rawItems[items++] = productId;
+        }
+
+        /**
+         * Sort and de-duplicate the products of the last order, capped at MAX_BASKET_ITEMS
+         */
+        private void closeLast() {
+            if (orders == 0) {
+                return;
+            }
+            int start = offsets[orders - 1];
+            Arrays.sort(rawItems, start, items);
+            int end = start;
+            for (int i = start; i < items && end - start < MAX_BASKET_ITEMS; i++) {
+                if (end == start || rawItems[end - 1] != rawItems[i]) {
+                    rawItems[end++] = rawItems[i];
+                }
+            }
+            items = end;
+            offsets[orders] = items;
+        }
+
+        /**
+         * Replace product IDs by dense indexes once every item is loaded
+         */
+        private void finish() {
+            closeLast();
+            productIds = Arrays.stream(rawItems, 0, items).sorted().distinct().toArray();
+            itemIndexes = new int[items];
+            for (int i = 0; i < items; i++) {
+                itemIndexes[i] = Arrays.binarySearch(productIds, rawItems[i]);
+            }
+            rawItems = null;
+        }
+
+        private boolean contains(Long orderId) {
+            return orderId != null && Arrays.binarySearch(orderIds, 0, orders, orderId) >= 0;
+        }
+    }
+
+    /**
+     * Counts per product pair, in an open-addressing table of primitive keys
+     * The key holds both product indexes, lower one in the high half; 0 marks an empty slot
+     * (a pair key is never 0 since the higher index is at least 1).
+     */
+    private static final class PairCounts {
+        private long[] keys = new long[1024];
+        private int[] counts = new int[1024];
+        private int size;
+
+        private void add(long key, int count) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    counts[slot] += count;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            counts[slot] = count;
+            if (++size * 4 > keys.length * 3) {
+                resize();
+            }
+        }
+
+        private void addAll(PairCounts other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.keys[slot] != 0) {
+                    add(other.keys[slot], other.counts[slot]);
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Count the pairs of a range of orders: small ranges directly, larger ones split in two
+     */
+    private static final class PairCountTask extends RecursiveTask<PairCounts> {
+        private final Baskets baskets;
+        private final int from;
+        private final int to;
+
+        private PairCountTask(Baskets baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PairCounts compute() {
+            if (to - from <= BASKETS_PER_TASK) {
+                PairCounts pairs = new PairCounts();
+                int[] indexes = baskets.itemIndexes;
+                for (int order = from; order < to; order++) {
+                    int end = baskets.offsets[order + 1];
+                    for (int i = baskets.offsets[order]; i < end; i++) {
+                        long high = (long) indexes[i] << 32;
+                        for (int j = i + 1; j < end; j++) {
+                            pairs.add(high | indexes[j], 1);
+                        }
+                    }
+                }
+                return pairs;
+            }
+            int mid = (from + to) >>> 1;
+            PairCountTask left = new PairCountTask(baskets, from, mid);
+            left.fork();
+            PairCounts right = new PairCountTask(baskets, mid, to).compute();
+            PairCounts leftPairs = left.join();
+            // Merge the smaller table into the larger one
+            if (leftPairs.size >= right.size) {
+                leftPairs.addAll(right);
+                return leftPairs;
+            }
+            right.addAll(leftPairs);
+            return right;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.shop.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of product details by ID in front of ProductRepository.findById
+ * Serves the product detail page and the cart checks for hot products without a query.
+ *
+ * Features:
+ * - Multi-get: all misses of a batch are loaded with one query
+ * - Caffeine cache: lock-free reads, W-TinyLFU eviction bounded by app.product-cache.maximum-size
+ * - Synchronous invalidation after every product change commits (create, update, delete,
+ *   stock changes at checkout and cancellation), in the thread that made the change
+ * - Misses are loaded in their own read-only transaction, never in the caller's: a caller's older
+ *   (REPEATABLE READ) snapshot could otherwise put a row that was already invalidated back in the cache
+ * - Loads racing with an invalidation are not cached, so a stale row never outlives the change
+ * - Hit, miss and eviction statistics
+ *
+ * Only DTOs are cached: code that modifies a product still loads the managed entity.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate loadTransaction;
+    private final Cache<Long, ProductDto> cache;
+    private final int maximumSize;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(ProductRepository productRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.product-cache.maximum-size:10000}") int maximumSize) {
+        this.productRepository = productRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a product by ID, loading it from the database on a miss
+     *
+     * @param id Product ID
+     * @return Product (active or not), or empty if it does not exist
+     */
+    public Optional<ProductDto> get(Long id) {
+        ProductDto cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Read before the load's snapshot is taken: every commit invalidated before this point is visible to it
+        long generation = invalidations.get();
+        Optional<ProductDto> loaded = loadTransaction.execute(status -> productRepository.findDtoById(id));
+        if (loaded.isPresent() && generation == invalidations.get()) {
+            cache.put(id, loaded.get());
+            // An invalidation between the check and the put must still win
+            if (generation != invalidations.get()) {
+                cache.invalidate(id);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Get several products by ID, loading all misses with one query
+     *
+     * @param ids Product IDs
+     * @return Products found (active or not) by ID; IDs that do not exist are absent
+     */
+    public Map<Long, ProductDto> getAll(Collection<Long> ids) {
+        Map<Long, ProductDto> found = new HashMap<>(cache.getAllPresent(ids));
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        long generation = invalidations.get();
+        List<ProductDto> loaded = loadTransaction.execute(status -> productRepository.findDtosByIdIn(misses));
+        for (ProductDto product : loaded) {
+            found.put(product.getId(), product);
+            if (generation == invalidations.get()) {
+                cache.put(product.getId(), product);
+            }
+        }
+        // An invalidation during the load must still win
+        if (generation != invalidations.get()) {
+            for (ProductDto product : loaded) {
+                cache.invalidate(product.getId());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Drop the changed products once their transaction commits
+     * Runs in the committing thread, so the next read after the change returns sees the new row.
+     *
+     * @param event Product changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidations.incrementAndGet();
+        if (event.isFullReload()) {
+            cache.invalidateAll();
+            return;
+        }
+        for (Long id : event.getProductIds()) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Get the cache statistics
+     *
+     * @return Map with size, maximumSize, hits, misses, hitRate and evictions
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("maximumSize", maximumSize);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
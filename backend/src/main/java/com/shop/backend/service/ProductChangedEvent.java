@@ -0,0 +1,57 @@
+package com.shop.backend.service;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Application event published whenever product data changes
+ * In-memory catalog structures listen for it and refresh after the transaction commits
+ *
+ * Features:
+ * - Carries the IDs of the created, updated or deleted products
+ * - Full reload flag for bulk operations that touch too many rows to list
+ */
+@Getter
+public class ProductChangedEvent {
+
+    private final Set<Long> productIds;
+    private final boolean fullReload;
+
+    private ProductChangedEvent(Set<Long> productIds, boolean fullReload) {
+        this.productIds = productIds;
+        this.fullReload = fullReload;
+    }
+
+    /**
+     * Event for a single changed product
+     *
+     * @param productId Product ID
+     * @return Product changed event
+     */
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(Collections.singleton(productId), false);
+    }
+
+    /**
+     * Event for several changed products
+     *
+     * @param productIds Product IDs
+     * @return Product changed event
+     */
+    public static ProductChangedEvent of(Collection<Long> productIds) {
+        return new ProductChangedEvent(Collections.unmodifiableSet(new LinkedHashSet<>(productIds)), false);
+    }
+
+    /**
+     * Event asking listeners to reload the whole catalog
+     *
+     * @return Product changed event
+     */
+    public static ProductChangedEvent all() {
+        return new ProductChangedEvent(Collections.emptySet(), true);
+    }
+}
@@ -0,0 +1,175 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.entity.ProductTombstone;
+import com.shop.backend.repository.ProductJdbcRepository;
+import com.shop.backend.repository.ProductRepository;
+import com.shop.backend.repository.ProductTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for delta catalog sync
+ * Clients keep a local copy of the catalog and ask only for what changed since their last sync.
+ *
+ * Features:
+ * - Opaque sync token (SyncToken) holding a position in (updated_at, id) order and the sync's base time
+ * - Created, updated and deactivated products (inactive ones included, with active=false)
+ * - Hard-deleted products from tombstones written by ProductService.deleteProduct
+ * - Paging: hasMore is set while the client should call again with the new token at once
+ * - Tombstones purged after app.tombstone-retention-days; a token whose base time is older must start
+ *   a full sync. A paged full sync can always finish, however old the products are.
+ *
+ * The final token of a sync rewinds by a short overlap so that changes committed late (updated_at is set
+ * before the commit) are not missed; the client may see some products twice, which is harmless.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class ProductChangesService {
+
+    public static final int MAX_CHANGES = 500;
+    private static final Duration OVERLAP = Duration.ofSeconds(10);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    @Value("${app.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    /**
+     * Get the products changed since a sync token
+     *
+     * @param token Token of the previous response (null or empty for a full sync)
+     * @param limit Maximum number of products (at most MAX_CHANGES)
+     * @return Map with products, deletedIds, nextToken and hasMore
+     * @throws IllegalArgumentException if the token is malformed
+     * @throws IllegalStateException if the token's base time is older than the tombstone retention period
+     */
+    public Map<String, Object> getChanges(String token, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_CHANGES));
+        LocalDateTime now = LocalDateTime.now();
+        boolean fullSync = token == null || token.isEmpty();
+        LocalDateTime since = BEGINNING;
+        long sinceId = 0;
+        // Deletions after the base time must still have their tombstones
+        LocalDateTime base = now;
+        if (!fullSync) {
+            SyncToken current = SyncToken.decode(token);
+            since = current.getSince();
+            sinceId = current.getSinceId();
+            base = current.getBase();
+            if (base.isBefore(now.minusDays(retentionDays))) {
+                throw new IllegalStateException("Sync token expired, a full sync is required");
+            }
+        }
+
+        List<Object[]> rows = productRepository.findChangedAfter(since, sinceId, PageRequest.of(0, max + 1));
+        boolean hasMore = rows.size() > max;
+        if (hasMore) {
+            rows = rows.subList(0, max);
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+
+        SyncToken next;
+        LocalDateTime until;
+        if (hasMore) {
+            // Same sync continues: keep its base time
+            Object[] last = rows.get(rows.size() - 1);
+            until = (LocalDateTime) last[1];
+            next = new SyncToken(until, ((Number) last[0]).longValue(), base);
+        } else {
+            // Sync complete: the next one needs deletions from its start position on
+            until = now;
+            LocalDateTime rewound = now.minus(OVERLAP);
+            next = rewound.isAfter(since)
+                    ? new SyncToken(rewound, 0, rewound)
+                    : new SyncToken(since, sinceId, since.isBefore(base) ? since : base);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", loadInOrder(ids));
+        // A full sync has nothing to delete on the client; later pages only report deletions after its start
+        response.put("deletedIds", fullSync
+                ? List.of()
+                : tombstoneRepository.findIdsDeletedBetween(since.isAfter(base) ? since : base, until));
+        response.put("nextToken", next.encode());
+        response.put("hasMore", hasMore);
+        return response;
+    }
+
+    private List<ProductDto> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductDto> byId = productRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        List<ProductDto> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            // A product deleted between the two queries is reported by its tombstone on the next call
+            ProductDto product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Record the hard deletion of a product
+     * Called in the deleting transaction, so the tombstone is written only if the delete commits.
+     *
+     * @param productId ID of the deleted product
+     */
+    @Transactional
+    public void recordDeletion(Long productId) {
+        tombstoneRepository.save(new ProductTombstone(productId, LocalDateTime.now()));
+    }
+
+    /**
+     * Purge tombstones older than the retention period (daily)
+     */
+    @Scheduled(cron = "${app.tombstone-purge-cron:0 0 4 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int removed = tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) {
+            log.info("Purged {} product tombstones older than {} days", removed, retentionDays);
+        }
+    }
+
+    /**
+     * Give products without an update time (rows older than the column) their creation time,
+     * so every product is found by the sync query
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    @Transactional
+    public void fillMissingUpdateTimes() {
+        int updated = productJdbcRepository.fillMissingUpdatedAt();
+        if (updated > 0) {
+            log.info("Update time filled in for {} products", updated);
+        }
+    }
+}
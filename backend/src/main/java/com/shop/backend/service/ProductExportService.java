@@ -0,0 +1,70 @@
+package com.shop.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.repository.ProductJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Service for the catalog export feed
+ * Streams products from a database cursor straight to the response, one JSON object per line
+ *
+ * Features:
+ * - Constant memory: one product is held at a time, whatever the catalog size
+ * - Backpressure: a blocked socket write stops reading from the cursor
+ * - Same JSON as the product API (ProductDto)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportService {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write all products as NDJSON
+     * The output is not closed.
+     *
+     * @param output Target stream
+     * @param includeInactive Also export inactive products
+     * @return Number of products written
+     * @throws IOException if writing fails (e.g. the client disconnected)
+     */
+    public long exportNdjson(OutputStream output, boolean includeInactive) throws IOException {
+        long start = System.currentTimeMillis();
+        // Let the generator and the servlet buffer decide when to flush, not every row
+        ObjectWriter writer = objectMapper.writerFor(ProductDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long[] count = new long[1];
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            productJdbcRepository.forEachProduct(includeInactive, product -> {
+                try {
+                    writer.writeValue(generator, productMapper.toDto(product));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    // Aborts the query, which releases the cursor
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            log.info("Product export aborted after {} products: {}", count[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        log.info("Product export: {} products in {} ms", count[0], System.currentTimeMillis() - start);
+        return count[0];
+    }
+}
@@ -0,0 +1,110 @@
+package com.shop.backend.service;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Storefront listing filter
+ * Holds the parsed search, category and price parameters of GET /api/products
+ *
+ * Every field is optional (null means "no filter").
+ * The price range is exclusive at the bottom and inclusive at the top.
+ * Besides the legacy buckets, the price parameter accepts the price band keys
+ * returned by GET /api/products/facets ("min-max" or "min+", in VND).
+ */
+@Getter
+public class ProductFilter {
+
+    private static final Pattern PRICE_BAND = Pattern.compile("(\\d+(?:\\.\\d+)?)(?:-(\\d+(?:\\.\\d+)?)|\\+)");
+
+    private final String query;
+    private final String category;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+
+    public ProductFilter(String query, String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.query = query;
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Build a filter from raw request parameters
+     *
+     * @param query Search query (optional)
+     * @param category Category filter (optional)
+     * @param price Price range filter (optional: 0-50, 50-100, 100+, or a price band key such as 200000-450000, 1200000+)
+     * @return Parsed filter
+     */
+    public static ProductFilter of(String query, String category, String price) {
+        String searchTerm = (query != null && !query.isEmpty()) ? query : null;
+        String categoryFilter = (category != null && !category.isEmpty()) ? category : null;
+        BigDecimal minPrice = null;
+        BigDecimal maxPrice = null;
+        if (price != null && !price.isEmpty()) {
+            switch (price) {
+                case "0-50":
+                    maxPrice = BigDecimal.valueOf(500_000);
+                    break;
+                case "50-100":
+                    minPrice = BigDecimal.valueOf(500_000);
+                    maxPrice = BigDecimal.valueOf(1_000_000);
+                    break;
+                case "100+":
+                    minPrice = BigDecimal.valueOf(1_000_000);
+                    break;
+                default:
+                    Matcher band = PRICE_BAND.matcher(price);
+                    if (band.matches()) {
+                        minPrice = positiveOrNull(new BigDecimal(band.group(1)));
+                        maxPrice = band.group(2) != null ? new BigDecimal(band.group(2)) : null;
+                    }
+                    break;
+            }
+        }
+        return new ProductFilter(searchTerm, categoryFilter, minPrice, maxPrice);
+    }
+
+    /**
+     * Check whether any filter is set
+     *
+     * @return true if no filter is set
+     */
+    public boolean isEmpty() {
+        return query == null && category == null && minPrice == null && maxPrice == null;
+    }
+
+    /**
+     * Check whether a price range is set
+     *
+     * @return true if a minimum or maximum price is set
+     */
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    /**
+     * Check whether a price falls inside the price range
+     *
+     * @param price Product price
+     * @return true if the price matches the range (or no range is set)
+     */
+    public boolean matchesPrice(BigDecimal price) {
+        if (!hasPriceRange()) {
+            return true;
+        }
+        if (price == null) {
+            return false;
+        }
+        return (minPrice == null || price.compareTo(minPrice) > 0)
+                && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+
+    private static BigDecimal positiveOrNull(BigDecimal value) {
+        return value.signum() > 0 ? value : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shop.backend.service;
+
+import lombok.Getter;
+
+/**
+ * Application event published when a product gets a newly uploaded image
+ * The image pipeline makes the resized copies after the transaction commits
+ */
+@Getter
+public class ProductImageStoredEvent {
+
+    private final Long productId;
+    private final String imageUrl;
+
+    /**
+     * Create an image stored event
+     *
+     * @param productId Product ID
+     * @param imageUrl URL of the stored image (/uploads/...)
+     */
+    public ProductImageStoredEvent(Long productId, String imageUrl) {
+        this.productId = productId;
+        this.imageUrl = imageUrl;
+    }
+}
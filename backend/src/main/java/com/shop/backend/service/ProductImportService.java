@@ -0,0 +1,432 @@
+package com.shop.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shop.backend.dto.ProductImportResultDto;
+import com.shop.backend.entity.Product;
+import com.shop.backend.repository.ProductJdbcRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk product import
+ * Streams a CSV or NDJSON upload and writes it in JDBC batches, one transaction per chunk
+ *
+ * Features:
+ * - Constant memory: one record is parsed at a time and at most one chunk is held
+ * - Same validation as createProduct (Product bean constraints, non-negative stock)
+ * - Rows without an id create a product (active defaults to true)
+ * - Rows with an id update only the columns present in the CSV header or JSON object; a present but empty
+ *   value clears a nullable column, an empty active leaves it unchanged
+ * - Invalid rows are skipped and reported; valid rows of the same chunk are still written
+ * - Row counts and throughput in the result
+ * - One full catalog reload afterwards instead of an event per product
+ * - Uploaded images set by the import get their resized copies from one background pass afterwards
+ *
+ * Columns (CSV header or NDJSON field names, case-insensitive, "_" ignored):
+ * id, name, description, price, stockQuantity, imageUrl, category, brand, active (default true for new rows)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "price", "stockquantity", "category");
+    private static final List<ImportColumn> UPDATABLE_COLUMNS = List.of(
+            new ImportColumn("name", "name", "name", String::trim),
+            new ImportColumn("description", "description", "description", value -> value),
+            new ImportColumn("price", "price", "price", value -> parse(value, "price", BigDecimal::new)),
+            new ImportColumn("stockquantity", "stockQuantity", "stock_quantity",
+                    value -> parse(value, "stockQuantity", Integer::valueOf)),
+            new ImportColumn("imageurl", "imageUrl", "image_url", String::trim),
+            new ImportColumn("category", "category", "category", String::trim),
+            new ImportColumn("brand", "brand", "brand", String::trim),
+            new ImportColumn("active", "active", "is_active", ProductImportService::parseActive));
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ImageVariantService imageVariantService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Import products from CSV with a header row
+     *
+     * @param input CSV content (UTF-8)
+     * @return Import result
+     * @throws IOException if the input cannot be read
+     * @throws IllegalArgumentException if the header lacks a required column
+     */
+    public ProductImportResultDto importCsv(InputStream input) throws IOException {
+        CsvReader reader = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        List<String> columns = header.stream().map(ProductImportService::column).collect(Collectors.toList());
+        // With an id column the file may be an update of some columns only; new rows are still checked one by one
+        if (!columns.contains("id")) {
+            for (String required : REQUIRED_COLUMNS) {
+                if (!columns.contains(required)) {
+                    throw new IllegalArgumentException("CSV header must contain the column: " + required);
+                }
+            }
+        }
+
+        Batch batch = new Batch();
+        try {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                    fields.put(columns.get(i), record.get(i));
+                }
+                batch.add(reader.getRecordNumber(), fields);
+            }
+        } catch (IOException | RuntimeException e) {
+            batch.abort();
+            throw e;
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Import products from newline-delimited JSON (one product object per line)
+     *
+     * @param input NDJSON content (UTF-8)
+     * @return Import result
+     * @throws IOException if the input cannot be read
+     */
+    public ProductImportResultDto importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        Batch batch = new Batch();
+        try {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, String> fields;
+                try {
+                    fields = fields(objectMapper.readTree(line));
+                } catch (JsonProcessingException e) {
+                    batch.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    batch.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                batch.add(lineNumber, fields);
+            }
+        } catch (IOException | RuntimeException e) {
+            batch.abort();
+            throw e;
+        }
+        return batch.finish();
+    }
+
+    private static Map<String, String> fields(JsonNode node) {
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Each line must be a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = iterator.next();
+            JsonNode value = entry.getValue();
+            if (value.isContainerNode()) {
+                throw new IllegalArgumentException("Field " + entry.getKey() + " must be a value");
+            }
+            fields.put(column(entry.getKey()), value.isNull() ? null : value.asText());
+        }
+        return fields;
+    }
+
+    private static String column(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Convert one record without an id to a new product
+     *
+     * @throws IllegalArgumentException with a user-facing message if a value cannot be parsed
+     */
+    private static Product toProduct(Map<String, String> fields) {
+        Product product = new Product();
+        product.setName(trimToNull(fields.get("name")));
+        product.setDescription(blankToNull(fields.get("description")));
+        String price = blankToNull(fields.get("price"));
+        product.setPrice(price == null ? null : parse(price, "price", BigDecimal::new));
+        String stock = blankToNull(fields.get("stockquantity"));
+        product.setStockQuantity(stock == null ? null : parse(stock, "stockQuantity", Integer::valueOf));
+        product.setImageUrl(trimToNull(fields.get("imageurl")));
+        product.setCategory(trimToNull(fields.get("category")));
+        product.setBrand(trimToNull(fields.get("brand")));
+        String active = blankToNull(fields.get("active"));
+        product.setActive(active == null || parseActive(active));
+        return product;
+    }
+
+    /**
+     * Convert the fields present in a record with an id to the columns to update
+     *
+     * @return Column name to new value, in a fixed column order
+     * @throws IllegalArgumentException with a user-facing message if a value cannot be parsed
+     */
+    private static Map<String, Object> toColumns(Map<String, String> fields) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (ImportColumn column : UPDATABLE_COLUMNS) {
+            if (!fields.containsKey(column.field)) {
+                continue;
+            }
+            String value = blankToNull(fields.get(column.field));
+            if (value == null && column.field.equals("active")) {
+                // There is no "no value" for active: an empty cell keeps the current state
+                continue;
+            }
+            columns.put(column.column, value == null ? null : column.parser.apply(value));
+        }
+        return columns;
+    }
+
+    private static <T> T parse(String value, String column, Function<String, T> parser) {
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static boolean parseActive(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true": case "1": case "yes":
+                return true;
+            case "false": case "0": case "no":
+                return false;
+            default:
+                throw new IllegalArgumentException("Invalid active: " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static boolean isUpload(String imageUrl) {
+        return imageUrl != null && imageUrl.startsWith(ImageStorageService.URL_PREFIX);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Rows of the current chunk plus the running totals of one import
+     */
+    private final class Batch {
+        private final long start = System.currentTimeMillis();
+        private final ProductImportResultDto result = new ProductImportResultDto();
+        private final List<Product> inserts = new ArrayList<>(CHUNK_SIZE);
+        private final List<Long> updateIds = new ArrayList<>(CHUNK_SIZE);
+        private final List<Map<String, Object>> updateColumns = new ArrayList<>(CHUNK_SIZE);
+        private final List<Long> insertRows = new ArrayList<>(CHUNK_SIZE);
+        private final List<Long> updateRows = new ArrayList<>(CHUNK_SIZE);
+        private boolean written;
+        private boolean chunkHasUploads;
+        private boolean uploadsWritten;
+
+        private void add(long row, Map<String, String> fields) {
+            result.setProcessed(result.getProcessed() + 1);
+            String id = blankToNull(fields.get("id"));
+            try {
+                if (id == null) {
+                    addInsert(row, toProduct(fields));
+                } else {
+                    addUpdate(row, parse(id, "id", Long::valueOf), toColumns(fields));
+                }
+            } catch (IllegalArgumentException e) {
+                reportError(row, e.getMessage());
+                return;
+            }
+            if (inserts.size() + updateIds.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void addInsert(long row, Product product) {
+            // Same rules as createProduct
+            if (product.getStockQuantity() != null && product.getStockQuantity() < 0) {
+                reportError(row, "Stock quantity cannot be negative");
+                return;
+            }
+            if (product.getCategory() == null) {
+                // products.category is NOT NULL: catch it here rather than failing the whole chunk
+                reportError(row, "Category is required");
+                return;
+            }
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                reportError(row, messages(violations));
+                return;
+            }
+            inserts.add(product);
+            insertRows.add(row);
+            chunkHasUploads |= isUpload(product.getImageUrl());
+        }
+
+        private void addUpdate(long row, Long id, Map<String, Object> columns) {
+            if (columns.isEmpty()) {
+                reportError(row, "Nothing to update for product " + id);
+                return;
+            }
+            Object stock = columns.get("stock_quantity");
+            if (stock != null && (Integer) stock < 0) {
+                reportError(row, "Stock quantity cannot be negative");
+                return;
+            }
+            if (columns.containsKey("category") && columns.get("category") == null) {
+                reportError(row, "Category is required");
+                return;
+            }
+            // Same Product bean constraints as createProduct, for the columns being written only
+            Set<ConstraintViolation<Product>> violations = new HashSet<>();
+            for (ImportColumn column : UPDATABLE_COLUMNS) {
+                if (columns.containsKey(column.column)) {
+                    violations.addAll(validator.validateValue(Product.class, column.property, columns.get(column.column)));
+                }
+            }
+            if (!violations.isEmpty()) {
+                reportError(row, messages(violations));
+                return;
+            }
+            updateIds.add(id);
+            updateColumns.add(columns);
+            updateRows.add(row);
+            chunkHasUploads |= isUpload((String) columns.get("image_url"));
+        }
+
+        private String messages(Set<ConstraintViolation<Product>> violations) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        private void reject(long row, String message) {
+            result.setProcessed(result.getProcessed() + 1);
+            reportError(row, message);
+        }
+
+        private void flush() {
+            if (inserts.isEmpty() && updateIds.isEmpty()) {
+                return;
+            }
+            try {
+                int[] counts = productJdbcRepository.writeChunk(inserts, updateIds, updateColumns);
+                result.setInserted(result.getInserted() + inserts.size());
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        reportError(updateRows.get(i), "Product not found: " + updateIds.get(i));
+                    } else {
+                        result.setUpdated(result.getUpdated() + 1);
+                    }
+                }
+                written = true;
+                uploadsWritten |= chunkHasUploads;
+            } catch (DataAccessException e) {
+                // The chunk was rolled back as a whole
+                log.warn("Product import chunk failed", e);
+                String message = "Chunk rejected by the database: " + e.getMostSpecificCause().getMessage();
+                insertRows.forEach(row -> reportError(row, message));
+                updateRows.forEach(row -> reportError(row, message));
+            }
+            inserts.clear();
+            updateIds.clear();
+            updateColumns.clear();
+            insertRows.clear();
+            updateRows.clear();
+            chunkHasUploads = false;
+        }
+
+        private void reportError(long row, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new ProductImportResultDto.RowError(row, message));
+            }
+        }
+
+        /**
+         * Stop after a read error: chunks already committed stay, so the catalog still has to reload
+         */
+        private void abort() {
+            if (written) {
+                eventPublisher.publishEvent(ProductChangedEvent.all());
+            }
+            if (uploadsWritten) {
+                imageVariantService.processMissing();
+            }
+        }
+
+        private ProductImportResultDto finish() {
+            flush();
+            if (written) {
+                eventPublisher.publishEvent(ProductChangedEvent.all());
+            }
+            if (uploadsWritten) {
+                // Too many rows for one ProductImageStoredEvent each (and new rows have no ID here)
+                imageVariantService.processMissing();
+            }
+            long duration = System.currentTimeMillis() - start;
+            result.setDurationMs(duration);
+            result.setRowsPerSecond(result.getProcessed() * 1000 / Math.max(1, duration));
+            log.info("Product import: {} rows, {} inserted, {} updated, {} failed in {} ms",
+                    result.getProcessed(), result.getInserted(), result.getUpdated(), result.getFailed(), duration);
+            return result;
+        }
+    }
+
+    /**
+     * Import field mapped to its Product property and products column
+     */
+    private static final class ImportColumn {
+        private final String field;
+        private final String property;
+        private final String column;
+        private final Function<String, Object> parser;
+
+        private ImportColumn(String field, String property, String column, Function<String, Object> parser) {
+            this.field = field;
+            this.property = property;
+            this.column = column;
+            this.parser = parser;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.entity.Product;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts Product entities to ProductDto
+ * Shared by ProductService and the in-memory catalog so both produce the same JSON
+ */
+@Component
+public class ProductMapper {
+
+    /**
+     * Convert Product entity to ProductDto
+     *
+     * @param product Product entity
+     * @return ProductDto
+     */
+    public ProductDto toDto(Product product) {
+        return new ProductDto(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getImageUrl(),
+                product.getCategory(),
+                product.getBrand(),
+                product.getStockQuantity(),
+                product.isActive(),
+                product.getCreatedAt(),
+                product.getSoldCount(),
+                product.getImageVariants()
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package com.shop.backend.service;
+
+import com.shop.backend.entity.Order;
+import com.shop.backend.entity.OrderItem;
+import com.shop.backend.entity.OrderStatus;
+import com.shop.backend.repository.OrderItemRepository;
+import com.shop.backend.repository.ProductJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service maintaining the per-product sales counter (products.sold_count)
+ * The counter backs the best-selling catalog sort and the dashboard's top products,
+ * so neither has to aggregate order items.
+ *
+ * Features:
+ * - Incremental: an order adds its quantities when created and removes them when cancelled or deleted
+ * - One batched UPDATE per order, in the caller's transaction, rows locked in ID order
+ * - One-time backfill from the existing orders when the column is new
+ *
+ * Callers publish the ProductChangedEvent, together with the stock change of the same order.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ProductSalesService {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    /**
+     * Check whether the items of an order in this status count as sold
+     *
+     * @param status Order status
+     * @return false for cancelled orders
+     */
+    public static boolean countsAsSold(OrderStatus status) {
+        return status != OrderStatus.CANCELLED && status != OrderStatus.CUSTOMER_CANCELLED;
+    }
+
+    /**
+     * Add the quantities of an order to the sales counters
+     *
+     * @param order Order with its items
+     */
+    public void recordSale(Order order) {
+        adjust(order, 1);
+    }
+
+    /**
+     * Remove the quantities of an order from the sales counters
+     *
+     * @param order Order with its items
+     */
+    public void revertSale(Order order) {
+        adjust(order, -1);
+    }
+
+    /**
+     * Update the sales counters for a status change
+     * Only a move between a cancelled and a non-cancelled status changes them.
+     *
+     * @param order Order with its items
+     * @param from Previous status
+     * @param to New status
+     * @return true if any counter changed
+     */
+    public boolean onStatusChange(Order order, OrderStatus from, OrderStatus to) {
+        boolean before = countsAsSold(from);
+        boolean after = countsAsSold(to);
+        if (before == after) {
+            return false;
+        }
+        adjust(order, after ? 1 : -1);
+        return true;
+    }
+
+    private void adjust(Order order, int sign) {
+        // Sorted by product ID: the same lock order as the bulk product updates
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProduct().getId(), (long) item.getQuantity() * sign, Long::sum);
+        }
+        productJdbcRepository.addToSoldCounts(new ArrayList<>(quantities.keySet()), new ArrayList<>(quantities.values()));
+    }
+
+    /**
+     * Fill the counters from the existing orders when none is set yet
+     * Runs when the application has started, before the catalog is loaded on ApplicationReadyEvent.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void backfillSoldCounts() {
+        if (productJdbcRepository.hasSoldCounts() || orderItemRepository.count() == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int updated = productJdbcRepository.recountSoldCounts();
+        log.info("Sales counters backfilled: {} products changed in {} ms", updated, System.currentTimeMillis() - start);
+    }
+}
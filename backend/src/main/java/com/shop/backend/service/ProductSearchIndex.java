@@ -0,0 +1,717 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over the active catalog
+ * Replaces LIKE '%term%' scans for product search
+ *
+ * Features:
+ * - Inverted index over name, description, brand and category
+ * - Vietnamese diacritic folding (see VietnameseTextAnalyzer)
+ * - BM25 ranking with per-field weights
+ * - Prefix matching on the last query term ("iph" finds "iphone")
+ * - Incremental updates fed by CatalogIndex after each product change
+ * - Optional typo tolerance: trigram index over the term dictionary plus bounded edit distance,
+ *   with a "did you mean" rewrite of the query
+ *
+ * Products and terms are numbered densely internally so postings and query accumulators are primitive arrays.
+ * The accumulators are borrowed from a small pool (one per CPU) rather than kept per request thread,
+ * so their retained size does not grow with the servlet thread pool.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MAX_QUERY_TOKENS = 16;
+    private static final int MAX_FUZZY_EXPANSIONS = 20;
+    private static final float FUZZY_PENALTY = 0.5f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docNumbers = new HashMap<>();
+    private final Map<String, TermSet> trigrams = new HashMap<>();
+    private final BlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private long[] docIds = new long[16];
+    private float[] docLengths = new float[16];
+    private String[][] docTerms = new String[16][];
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private int maxDoc;
+    private double totalLength;
+
+    private Postings[] termsByNumber = new Postings[16];
+    private int[] freeTerms = new int[16];
+    private int freeTermCount;
+    private int maxTerm;
+
+    /**
+     * Replace the whole index
+     *
+     * @param products Active products
+     */
+    public void rebuild(Collection<ProductDto> products) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            docNumbers.clear();
+            trigrams.clear();
+            termsByNumber = new Postings[16];
+            freeTermCount = 0;
+            maxTerm = 0;
+            int capacity = Math.max(16, products.size());
+            docIds = new long[capacity];
+            docLengths = new float[capacity];
+            docTerms = new String[capacity][];
+            freeCount = 0;
+            maxDoc = 0;
+            totalLength = 0;
+            for (ProductDto product : products) {
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply product changes to the index
+     *
+     * @param upserts Active products that were created or updated
+     * @param removedIds IDs of products that were deleted or deactivated
+     */
+    public void update(Collection<ProductDto> upserts, Collection<Long> removedIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : removedIds) {
+                removeDocument(id);
+            }
+            for (ProductDto product : upserts) {
+                removeDocument(product.getId());
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find products matching every query term, ranked by relevance
+     *
+     * @param query Search query
+     * @return Product IDs, best match first
+     */
+    public List<Long> search(String query) {
+        return match(query).ranked();
+    }
+
+    /**
+     * Find products matching every query term
+     *
+     * @param query Search query
+     * @return Matching product IDs with their BM25 scores
+     */
+    public Matches match(String query) {
+        return match(query, false);
+    }
+
+    /**
+     * Find products matching every query term, optionally tolerating typos
+     * In fuzzy mode a term missing from the dictionary is replaced by the known terms within a small
+     * edit distance (1 for short words, 2 for longer ones), scored lower than exact matches.
+     * The best replacement of each unknown term also forms the "did you mean" query.
+     *
+     * @param query Search query
+     * @param fuzzy Whether to correct unknown terms
+     * @return Matching product IDs with their scores, plus the corrected query in fuzzy mode
+     */
+    public Matches match(String query, boolean fuzzy) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(VietnameseTextAnalyzer.tokenize(query)));
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+        if (tokens.isEmpty()) {
+            return Matches.EMPTY;
+        }
+        lock.readLock().lock();
+        Scratch s = null;
+        try {
+            s = borrowScratch();
+            List<List<Expansion>> expansions = new ArrayList<>(tokens.size());
+            List<String> corrected = new ArrayList<>(tokens.size());
+            boolean changed = false;
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                List<Expansion> expansion = expand(token, t == tokens.size() - 1);
+                if (expansion.isEmpty() && fuzzy) {
+                    expansion = corrections(token, s);
+                    if (!expansion.isEmpty()) {
+                        token = expansion.get(0).postings.term;
+                        changed = true;
+                    }
+                }
+                expansions.add(expansion);
+                corrected.add(token);
+            }
+            String didYouMean = changed ? String.join(" ", corrected) : null;
+
+            int base = s.nextQuery();
+            int liveDocs = docNumbers.size();
+            double avgLength = liveDocs == 0 ? 1.0 : totalLength / liveDocs;
+            int touchedCount = 0;
+
+            for (int t = 0; t < tokens.size(); t++) {
+                int expected = base + t;
+                touchedCount = 0;
+                for (Expansion expansion : expansions.get(t)) {
+                    Postings postings = expansion.postings;
+                    double idf = Math.log(1.0 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        if (t > 0 && s.mark[doc] != expected) {
+                            continue;
+                        }
+                        float tf = postings.frequencies[i];
+                        double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                        float score = (float) (expansion.boost * idf * tf * (K1 + 1) / (tf + norm));
+                        if (s.bestMark[doc] != expected) {
+                            s.bestMark[doc] = expected;
+                            s.best[doc] = score;
+                            s.touched[touchedCount++] = doc;
+                        } else if (score > s.best[doc]) {
+                            s.best[doc] = score;
+                        }
+                    }
+                }
+                for (int j = 0; j < touchedCount; j++) {
+                    int doc = s.touched[j];
+                    s.scores[doc] = (t == 0 ? 0 : s.scores[doc]) + s.best[doc];
+                    s.mark[doc] = expected + 1;
+                }
+                if (touchedCount == 0) {
+                    return didYouMean == null ? Matches.EMPTY : new Matches(new long[0], new float[0], didYouMean);
+                }
+            }
+
+            long[] ids = new long[touchedCount];
+            float[] scores = new float[touchedCount];
+            for (int j = 0; j < touchedCount; j++) {
+                int doc = s.touched[j];
+                ids[j] = docIds[doc];
+                scores[j] = s.scores[doc];
+            }
+            return new Matches(ids, scores, didYouMean);
+        } finally {
+            if (s != null) {
+                releaseScratch(s);
+            }
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Take query accumulators from the pool, or allocate them when all pooled ones are in use
+     * Must be called under the read lock so the arrays fit the current catalog.
+     */
+    private Scratch borrowScratch() {
+        Scratch s = scratchPool.poll();
+        if (s == null) {
+            s = new Scratch();
+        }
+        s.ensure(maxDoc, maxTerm);
+        return s;
+    }
+
+    /**
+     * Give query accumulators back to the pool
+     * Accumulators left oversized by a catalog that has since shrunk, or beyond the pool capacity,
+     * are dropped for the garbage collector instead of being retained.
+     */
+    private void releaseScratch(Scratch s) {
+        if (s.oversized(maxDoc, maxTerm)) {
+            return;
+        }
+        scratchPool.offer(s);
+    }
+
+    /**
+     * Get the number of indexed products
+     *
+     * @return Document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docNumbers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Expansion> expand(String token, boolean prefix) {
+        List<Expansion> result = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            result.add(new Expansion(exact, 1.0f));
+        }
+        if (prefix) {
+            for (Postings postings : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                if (result.size() > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                result.add(new Expansion(postings, 1.0f));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the dictionary terms within the allowed edit distance of a token
+     * Candidates come from the trigram postings of the token, so the cost depends on how many terms
+     * share its trigrams rather than on the catalog size. A term within k edits of the token shares
+     * at least (trigrams - 4k) of its trigrams (a transposition breaks up to four) and differs in length
+     * by at most k; only candidates passing both filters are verified with a banded edit distance.
+     *
+     * @return Corrections, closest and most frequent first
+     */
+    private List<Expansion> corrections(String token, Scratch s) {
+        int maxEdits = maxEdits(token.length());
+        if (maxEdits == 0) {
+            return List.of();
+        }
+        List<String> grams = trigrams(token);
+        int stamp = s.nextTermQuery();
+        int candidateCount = 0;
+        for (String gram : grams) {
+            TermSet set = trigrams.get(gram);
+            if (set == null) {
+                continue;
+            }
+            for (int i = 0; i < set.size; i++) {
+                int term = set.terms[i];
+                if (s.termMark[term] != stamp) {
+                    s.termMark[term] = stamp;
+                    s.sharedGrams[term] = 0;
+                    s.candidates[candidateCount++] = term;
+                }
+                s.sharedGrams[term]++;
+            }
+        }
+
+        int minShared = Math.max(1, grams.size() - 4 * maxEdits);
+        List<Expansion> result = new ArrayList<>();
+        for (int i = 0; i < candidateCount; i++) {
+            int term = s.candidates[i];
+            Postings postings = termsByNumber[term];
+            if (s.sharedGrams[term] < minShared
+                    || Math.abs(postings.term.length() - token.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(token, postings.term, maxEdits);
+            if (distance <= maxEdits) {
+                result.add(new Expansion(postings, (float) Math.pow(FUZZY_PENALTY, distance), distance));
+            }
+        }
+        result.sort((a, b) -> {
+            int cmp = Integer.compare(a.distance, b.distance);
+            if (cmp == 0) {
+                cmp = Integer.compare(b.postings.size, a.postings.size);
+            }
+            return cmp != 0 ? cmp : a.postings.term.compareTo(b.postings.term);
+        });
+        return result.size() > MAX_FUZZY_EXPANSIONS ? result.subList(0, MAX_FUZZY_EXPANSIONS) : result;
+    }
+
+    private static int maxEdits(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Distinct trigrams of a term padded with two spaces on each side
+     * ("iphone" gives "  i", " ip", "iph", ..., "ne ", "e  "), so a term of length n has n + 2 trigrams.
+     * The padding keeps the first and last letters in trigrams of their own, which is what lets a short
+     * word with a typo in the middle still share a trigram with the intended word.
+     */
+    private static List<String> trigrams(String term) {
+        String padded = "  " + term + "  ";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String gram = padded.substring(i, i + 3);
+            if (!result.contains(gram)) {
+                result.add(gram);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance (an adjacent transposition counts as one edit)
+     * Only the band of width 2 * max + 1 around the diagonal is computed and the computation stops
+     * as soon as every cell of a row exceeds the bound.
+     *
+     * @return The distance, or max + 1 if it is larger than max
+     */
+    private static int editDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int outside = max + 1;
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, outside);
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            Arrays.fill(current, outside);
+            current[0] = i <= max ? i : outside;
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m];
+    }
+
+    private void addDocument(ProductDto product) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addField(frequencies, product.getName(), NAME_WEIGHT);
+        length += addField(frequencies, product.getBrand(), BRAND_WEIGHT);
+        length += addField(frequencies, product.getCategory(), CATEGORY_WEIGHT);
+        length += addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        int doc = allocateDoc();
+        docIds[doc] = product.getId();
+        docLengths[doc] = length;
+        docTerms[doc] = frequencies.keySet().toArray(new String[0]);
+        docNumbers.put(product.getId(), doc);
+        totalLength += length;
+        for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), this::addTerm).put(doc, entry.getValue());
+        }
+    }
+
+    private void removeDocument(Long id) {
+        Integer doc = docNumbers.remove(id);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= docLengths[doc];
+        for (String term : docTerms[doc]) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(doc) && postings.size == 0) {
+                terms.remove(term);
+                removeTerm(postings);
+            }
+        }
+        docTerms[doc] = null;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    private int allocateDoc() {
+        if (freeCount > 0) {
+            return freeDocs[--freeCount];
+        }
+        if (maxDoc == docIds.length) {
+            int capacity = maxDoc * 2;
+            docIds = Arrays.copyOf(docIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+        return maxDoc++;
+    }
+
+    private Postings addTerm(String term) {
+        int number;
+        if (freeTermCount > 0) {
+            number = freeTerms[--freeTermCount];
+        } else {
+            if (maxTerm == termsByNumber.length) {
+                termsByNumber = Arrays.copyOf(termsByNumber, maxTerm * 2);
+            }
+            number = maxTerm++;
+        }
+        Postings postings = new Postings(term, number);
+        termsByNumber[number] = postings;
+        for (String gram : trigrams(term)) {
+            trigrams.computeIfAbsent(gram, g -> new TermSet()).add(number);
+        }
+        return postings;
+    }
+
+    private void removeTerm(Postings postings) {
+        for (String gram : trigrams(postings.term)) {
+            TermSet set = trigrams.get(gram);
+            if (set != null && set.remove(postings.number) && set.size == 0) {
+                trigrams.remove(gram);
+            }
+        }
+        termsByNumber[postings.number] = null;
+        if (freeTermCount == freeTerms.length) {
+            freeTerms = Arrays.copyOf(freeTerms, freeTermCount * 2);
+        }
+        freeTerms[freeTermCount++] = postings.number;
+    }
+
+    private static float addField(Map<String, Float> frequencies, String text, float weight) {
+        List<String> tokens = VietnameseTextAnalyzer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Result of a search: matching product IDs and their scores, in no particular order
+     */
+    public static final class Matches {
+
+        static final Matches EMPTY = new Matches(new long[0], new float[0], null);
+
+        private final long[] ids;
+        private final float[] scores;
+        private final String didYouMean;
+
+        Matches(long[] ids, float[] scores, String didYouMean) {
+            this.ids = ids;
+            this.scores = scores;
+            this.didYouMean = didYouMean;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public long id(int index) {
+            return ids[index];
+        }
+
+        public float score(int index) {
+            return scores[index];
+        }
+
+        /**
+         * Query with its unknown terms replaced by their closest known terms (fuzzy mode only)
+         *
+         * @return Corrected query, or null if no term needed correcting
+         */
+        public String didYouMean() {
+            return didYouMean;
+        }
+
+        /**
+         * Product IDs ordered by score, best first (ties by ID)
+         *
+         * @return Ranked product IDs
+         */
+        public List<Long> ranked() {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int cmp = Float.compare(scores[b], scores[a]);
+                return cmp != 0 ? cmp : Long.compare(ids[a], ids[b]);
+            });
+            List<Long> result = new ArrayList<>(order.length);
+            for (Integer index : order) {
+                result.add(ids[index]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Posting list of one term: internal doc numbers sorted ascending with weighted term frequencies
+     */
+    private static final class Postings {
+        private final String term;
+        private final int number;
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        private Postings(String term, int number) {
+            this.term = term;
+            this.number = number;
+        }
+
+        private void put(int doc, float frequency) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            index = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            docs[index] = doc;
+            frequencies[index] = frequency;
+            size++;
+        }
+
+        private boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Term numbers containing one trigram, sorted ascending
+     */
+    private static final class TermSet {
+        private int[] terms = new int[4];
+        private int size;
+
+        private void add(int term) {
+            int index = Arrays.binarySearch(terms, 0, size, term);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == terms.length) {
+                terms = Arrays.copyOf(terms, size * 2);
+            }
+            System.arraycopy(terms, index, terms, index + 1, size - index);
+            terms[index] = term;
+            size++;
+        }
+
+        private boolean remove(int term) {
+            int index = Arrays.binarySearch(terms, 0, size, term);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(terms, index + 1, terms, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * One dictionary term a query token expands to, with the factor applied to its scores
+     */
+    private static final class Expansion {
+        private final Postings postings;
+        private final float boost;
+        private final int distance;
+
+        private Expansion(Postings postings, float boost) {
+            this(postings, boost, 0);
+        }
+
+        private Expansion(Postings postings, float boost, int distance) {
+            this.postings = postings;
+            this.boost = boost;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Query accumulators, pooled and reused across queries
+     * Marks are stamped with a per-query base so the arrays never need clearing.
+     */
+    private static final class Scratch {
+        private int[] mark = new int[0];
+        private int[] bestMark = new int[0];
+        private float[] best = new float[0];
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+        private int[] termMark = new int[0];
+        private int[] sharedGrams = new int[0];
+        private int[] candidates = new int[0];
+        private int base;
+        private int termBase;
+
+        private void ensure(int size, int termCount) {
+            if (termMark.length < termCount) {
+                int capacity = Math.max(termCount, termMark.length * 2);
+                termMark = Arrays.copyOf(termMark, capacity);
+                sharedGrams = Arrays.copyOf(sharedGrams, capacity);
+                candidates = Arrays.copyOf(candidates, capacity);
+            }
+            if (mark.length < size) {
+                int capacity = Math.max(size, mark.length * 2);
+                mark = Arrays.copyOf(mark, capacity);
+                bestMark = Arrays.copyOf(bestMark, capacity);
+                best = Arrays.copyOf(best, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                touched = Arrays.copyOf(touched, capacity);
+            }
+        }
+
+        private boolean oversized(int size, int termCount) {
+            return mark.length > 2 * Math.max(16, size) || termMark.length > 2 * Math.max(16, termCount);
+        }
+
+        private int nextQuery() {
+            if (base > Integer.MAX_VALUE - 2 * (MAX_QUERY_TOKENS + 1)) {
+                Arrays.fill(mark, 0);
+                Arrays.fill(bestMark, 0);
+                base = 0;
+            }
+            base += MAX_QUERY_TOKENS + 1;
+            return base;
+        }
+
+        private int nextTermQuery() {
+            if (termBase == Integer.MAX_VALUE) {
+                Arrays.fill(termMark, 0);
+                termBase = 0;
+            }
+            return ++termBase;
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.shop.backend.service;
 
+import com.shop.backend.dto.CatalogDictionaryDto;
 import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.ProductFacetsDto;
+import com.shop.backend.dto.RelatedRebuildResultDto;
+import com.shop.backend.dto.SparseFields;
+import com.shop.backend.dto.SuggestionDto;
 import com.shop.backend.entity.Product;
+import com.shop.backend.repository.ProductJdbcRepository;
+import com.shop.backend.repository.ProductListingRepository;
 import com.shop.backend.repository.ProductRepository;
+import com.shop.backend.repository.ProductSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Comparator;
 
 /**
  * Service class for Product business logic
@@ -30,6 +41,10 @@ import java.util.Comparator;
  * - Business logic validation
  * - Transaction management
  * - DTO conversion
+ * - Storefront reads served from the in-memory CatalogIndex
+ * - Product details by ID served from ProductCache, one by one or in batches
+ * - Frequently bought together served from ProductAssociations
+ * - Product images streamed to disk by ImageStorageService, resized in the background by ImageVariantService
  */
 @Service
 @RequiredArgsConstructor
@@ -37,7 +52,19 @@ import java.util.Comparator;
 public class ProductService {
 
     private final ProductRepository productRepository;
-    private static final String UPLOAD_DIR = "uploads";
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductListingRepository productListingRepository;
+    private final ProductMapper productMapper;
+    private final CatalogIndex catalogIndex;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggester suggester;
+    private final ProductAssociations associations;
+    private final ProductCache productCache;
+    private final ProductChangesService productChangesService;
+    private final ImageStorageService imageStorageService;
+    private final CatalogDictionary dictionary;
+    private final ApplicationEventPublisher eventPublisher;
+    public static final int MAX_BATCH_IDS = 100;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -47,13 +74,9 @@ public class ProductService {
      * @param size Page size
      * @return List of products for the specified page
      */
+    @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts(int page, int size) {
-        return productRepository.findByActiveTrue()
-                .stream()
-                .skip(page * size)
-                .limit(size)
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findActiveDtos(PageRequest.of(page, size, Sort.by("id")));
     }
 
     /**
@@ -61,22 +84,56 @@ public class ProductService {
      * 
      * @return List of all products
      */
+    @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
-        return productRepository.findByActiveTrue()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findActiveDtos();
     }
 
     /**
      * Get product by ID
+     * Served from ProductCache; only misses reach the database
      * 
      * @param id Product ID
      * @return Optional containing the product if found
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<ProductDto> getProductById(Long id) {
-        return productRepository.findById(id)
-                .map(this::convertToDto);
+        return productCache.get(id);
+    }
+
+    /**
+     * Get several products by ID in one call
+     * Served from ProductCache; all misses are loaded with a single query
+     *
+     * @param ids Product IDs, duplicates ignored (at most MAX_BATCH_IDS)
+     * @return Map with products in request order and missingIds (IDs that do not exist)
+     * @throws IllegalArgumentException if no ID or too many IDs are given
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Object> getProductsByIds(List<Long> ids) {
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("At least one product ID is required");
+        }
+        if (unique.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " product IDs can be requested at once");
+        }
+        Map<Long, ProductDto> found = productCache.getAll(unique);
+        List<ProductDto> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : unique) {
+            ProductDto product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", products);
+        response.put("missingIds", missingIds);
+        return response;
     }
 
     /**
@@ -106,12 +163,17 @@ public class ProductService {
         
         Product product = convertToEntity(productDto);
         
+        String imageUrl = null;
         if (imageFile != null && !imageFile.isEmpty()) {
-            String imageUrl = saveImage(imageFile);
+            imageUrl = imageStorageService.store(imageFile);
             product.setImageUrl(imageUrl);
         }
         
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getId()));
+        if (imageUrl != null) {
+            eventPublisher.publishEvent(new ProductImageStoredEvent(saved.getId(), imageUrl));
+        }
         return convertToDto(saved);
     }
 
@@ -141,17 +203,27 @@ public class ProductService {
         product.setActive(productDto.isActive());
         
         // Only update image if a new file is provided
+        String imageUrl = null;
         if (imageFile != null && !imageFile.isEmpty()) {
-            String imageUrl = saveImage(imageFile);
+            imageUrl = imageStorageService.store(imageFile);
+            if (!imageUrl.equals(product.getImageUrl())) {
+                // The copies of the old image go in the same transaction
+                productJdbcRepository.clearImageVariants(id);
+            }
             product.setImageUrl(imageUrl);
         }
         
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getId()));
+        if (imageUrl != null) {
+            eventPublisher.publishEvent(new ProductImageStoredEvent(saved.getId(), imageUrl));
+        }
         return convertToDto(saved);
     }
 
     /**
      * Delete a product
+     * A tombstone is kept so delta catalog sync can report the deletion.
      * 
      * @param id Product ID
      * @return true if product was deleted, false if not found
@@ -159,6 +231,8 @@ public class ProductService {
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            productChangesService.recordDeletion(id);
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
             return true;
         }
         return false;
@@ -170,25 +244,109 @@ public class ProductService {
      * @param category Product category
      * @return List of products in the specified category
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductDto> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category)
-                .stream()
-                .filter(Product::isActive)
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            return snapshot.byCategory(category);
+        }
+        return productRepository.findActiveDtosByCategory(category);
     }
 
     /**
-     * Search products by name
+     * Search products by name, description, brand and category
+     * Results are ranked by relevance; accents are optional ("dien thoai" finds "điện thoại")
      * 
      * @param searchTerm Search term
-     * @return List of products matching the search criteria
+     * @return List of products matching the search criteria, best match first
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductDto> searchProducts(String searchTerm) {
-        return productRepository.findByNameContainingIgnoreCaseAndActiveTrue(searchTerm)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            return toProducts(snapshot, searchIndex.search(searchTerm));
+        }
+        return productRepository.searchActiveDtosByName(searchTerm);
+    }
+
+    /**
+     * Search products tolerating typos
+     * Unknown words are matched against known words within a small edit distance
+     * ("ipone" finds "iphone"); such matches rank below exact ones.
+     *
+     * @param searchTerm Search term
+     * @return Map with products (best match first) and didYouMean (corrected query, null if nothing was corrected)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Object> fuzzySearchProducts(String searchTerm) {
+        Map<String, Object> response = new HashMap<>();
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            ProductSearchIndex.Matches matches = searchIndex.match(searchTerm, true);
+            response.put("products", toProducts(snapshot, matches.ranked()));
+            response.put("didYouMean", matches.didYouMean());
+        } else {
+            // Catalog not loaded yet: plain database search, no correction
+            response.put("products", searchProducts(searchTerm));
+            response.put("didYouMean", null);
+        }
+        return response;
+    }
+
+    /**
+     * Get the current catalog version for conditional GETs
+     * Cheap: no database access, so a matching If-None-Match can be answered before any query runs.
+     *
+     * @return Catalog version (ETag and Last-Modified)
+     */
+    public CatalogIndex.Version getCatalogVersion() {
+        return catalogIndex.version();
+    }
+
+    /**
+     * Get typeahead suggestions for the search box
+     * Served from memory: product names, brands and categories completing the prefix, most sold first
+     *
+     * @param prefix Typed text
+     * @param limit Maximum number of suggestions
+     * @return Suggestions, best first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    /**
+     * Get the products frequently bought together with a product
+     * Served from memory (ProductAssociations); inactive products are skipped.
+     *
+     * @param id Product ID
+     * @param limit Maximum number of products (at most ProductAssociations.MAX_RELATED)
+     * @return Related products, most often bought together first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductDto> getRelatedProducts(Long id, int limit) {
+        long[] related = associations.related(id);
+        int max = Math.min(limit, ProductAssociations.MAX_RELATED);
+        List<ProductDto> products = new ArrayList<>(Math.max(0, max));
+        for (int i = 0; i < related.length && products.size() < max; i++) {
+            productCache.get(related[i])
+                    .filter(ProductDto::isActive)
+                    .ifPresent(products::add);
+        }
+        return products;
+    }
+
+    /**
+     * Rebuild frequently-bought-together data from the order history
+     * Runs outside the caller's transaction: the history is streamed in its own read-only one.
+     *
+     * @return Rebuild statistics
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RelatedRebuildResultDto rebuildRelatedProducts() {
+        return associations.rebuild();
     }
 
     /**
@@ -196,10 +354,57 @@ public class ProductService {
      * 
      * @return List of all unique categories
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<String> getAllCategories() {
+        if (isDictionaryServed()) {
+            return dictionary.categories();
+        }
         return productRepository.findAllCategories();
     }
 
+    /**
+     * Get all brands
+     *
+     * @return List of all unique brands
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<String> getAllBrands() {
+        if (isDictionaryServed()) {
+            return dictionary.brands();
+        }
+        return productRepository.findAllBrands();
+    }
+
+    /**
+     * Get every category and brand with its number of active products
+     *
+     * @return Category and brand counts, sorted by name
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CatalogDictionaryDto getDictionaries() {
+        if (isDictionaryServed()) {
+            return new CatalogDictionaryDto(dictionary.categoryCounts(), dictionary.brandCounts());
+        }
+        // Catalog not loaded yet: count the active products from the database
+        CatalogDictionary counted = new CatalogDictionary();
+        counted.rebuild(productRepository.findActiveDtos());
+        return new CatalogDictionaryDto(counted.categoryCounts(), counted.brandCounts());
+    }
+
+    /**
+     * Get the version of the category and brand dictionaries for conditional GETs
+     * Unlike getCatalogVersion it does not change with stock or price edits.
+     *
+     * @return Dictionary version (ETag and Last-Modified)
+     */
+    public CatalogIndex.Version getDictionaryVersion() {
+        return isDictionaryServed() ? dictionary.version() : catalogIndex.version();
+    }
+
+    private boolean isDictionaryServed() {
+        return catalogIndex.snapshot() != null && dictionary.isLoaded();
+    }
+
     /**
      * Get products with pagination, search, filter, and sort
      *
@@ -207,73 +412,139 @@ public class ProductService {
      * @param size Page size
      * @param query Search query
      * @param category Category filter
-     * @param price Price range filter (0-50, 50-100, 100+)
-     * @param sort Sort option (name, price-low, price-high, newest, oldest, createdAt,asc, createdAt,desc)
+     * @param price Price range filter (0-50, 50-100, 100+, or a price band key from getFacets)
+     * @param sort Sort option (name, price-low, price-high, newest, oldest, createdAt,asc, createdAt,desc, relevance, bestselling)
+     * @param fields Requested properties (the database fallback reads the description only when it is requested)
      * @return Map with products and total count
      */
-    public Map<String, Object> getProducts(int page, int size, String query, String category, String price, String sort) {
-        List<Product> all = productRepository.findByActiveTrue();
-        // Filter by search query
-        if (query != null && !query.isEmpty()) {
-            String q = query.toLowerCase();
-            all = all.stream().filter(p ->
-                p.getName().toLowerCase().contains(q) ||
-                p.getDescription().toLowerCase().contains(q)
-            ).collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Object> getProducts(int page, int size, String query, String category, String price, String sort,
+                                           SparseFields fields) {
+        ProductFilter filter = ProductFilter.of(query, category, price);
+        CatalogSort catalogSort = CatalogSort.fromOption(sort);
+        List<ProductDto> products;
+        long total;
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            ProductSearchIndex.Matches matches = filter.getQuery() != null ? searchIndex.match(filter.getQuery()) : null;
+            CatalogSnapshot.Result result = snapshot.query(filter, matches, catalogSort, page, size);
+            products = result.getProducts();
+            total = result.getTotal();
+        } else {
+            // Catalog not loaded yet: run the same listing in the database
+            Page<ProductDto> result = productListingRepository.findPage(
+                    ProductSpecifications.activeMatching(filter.getQuery(), filter.getCategory(),
+                            filter.getMinPrice(), filter.getMaxPrice()),
+                    PageRequest.of(page, size, catalogSort.toSort()), fields.includes("description"));
+            products = result.getContent();
+            total = result.getTotalElements();
         }
-        // Filter by category
-        if (category != null && !category.isEmpty()) {
-            all = all.stream().filter(p -> category.equalsIgnoreCase(p.getCategory())).collect(Collectors.toList());
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", products);
+        response.put("total", total);
+        return response;
+    }
+
+    /**
+     * Get products after a cursor (keyset pagination), with the same search, filter and sort as getProducts
+     * Deep pages cost the same as the first one and do not shift when products are added.
+     *
+     * @param cursor Cursor returned with the previous page (empty for the first page)
+     * @param size Page size
+     * @param query Search query
+     * @param category Category filter
+     * @param price Price range filter
+     * @param sort Sort option
+     * @param fields Requested properties (the database fallback reads the description only when it is requested)
+     * @return Map with products, nextCursor (null on the last page) and hasNext
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for another sort
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Object> scrollProducts(String cursor, int size, String query, String category, String price, String sort,
+                                              SparseFields fields) {
+        ProductFilter filter = ProductFilter.of(query, category, price);
+        CatalogSort catalogSort = CatalogSort.fromOption(sort);
+        if (filter.getQuery() == null && catalogSort == CatalogSort.RELEVANCE) {
+            catalogSort = CatalogSort.NAME;
         }
-        // Filter by price (BigDecimal)
-        if (price != null && !price.isEmpty()) {
-            switch (price) {
-                case "0-50":
-                    all = all.stream().filter(p -> p.getPrice() != null && p.getPrice().compareTo(java.math.BigDecimal.valueOf(500_000)) <= 0).collect(Collectors.toList());
-                    break;
-                case "50-100":
-                    all = all.stream().filter(p -> p.getPrice() != null && p.getPrice().compareTo(java.math.BigDecimal.valueOf(500_000)) > 0 && p.getPrice().compareTo(java.math.BigDecimal.valueOf(1_000_000)) <= 0).collect(Collectors.toList());
-                    break;
-                case "100+":
-                    all = all.stream().filter(p -> p.getPrice() != null && p.getPrice().compareTo(java.math.BigDecimal.valueOf(1_000_000)) > 0).collect(Collectors.toList());
-                    break;
+        PageCursor after = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor, catalogSort.name());
+        List<ProductDto> products;
+        PageCursor next;
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            ProductSearchIndex.Matches matches = filter.getQuery() != null ? searchIndex.match(filter.getQuery()) : null;
+            CatalogSnapshot.ScrollResult result = snapshot.scroll(filter, matches, catalogSort, after, size);
+            products = result.getProducts();
+            next = result.getNext();
+        } else {
+            // Catalog not loaded yet: seek in the database (relevance is not available there)
+            CatalogSort dbSort = catalogSort == CatalogSort.RELEVANCE ? CatalogSort.NAME : catalogSort;
+            String field = dbSort.getKey().getProperty();
+            // One product more than the page tells whether there is a next page
+            products = productListingRepository.findAfter(
+                    ProductSpecifications.activeMatching(filter.getQuery(), filter.getCategory(),
+                            filter.getMinPrice(), filter.getMaxPrice()),
+                    dbSort.toSort(), field,
+                    after == null || field.equals("id") ? null : dbSort.getKey().keyOf(after),
+                    after == null ? null : after.getId(), size + 1, fields.includes("description"));
+            boolean hasNext = products.size() > size;
+            if (hasNext) {
+                products = products.subList(0, size);
+            }
+            next = null;
+            if (hasNext && !products.isEmpty()) {
+                ProductDto last = products.get(products.size() - 1);
+                next = PageCursor.after(catalogSort.name(), dbSort.getKey().keyOf(last), last.getId());
             }
         }
-        // Sort
-        if (sort != null) {
-            switch (sort) {
-                case "price-low":
-                    all = all.stream().sorted(Comparator.comparing(Product::getPrice, Comparator.nullsLast(java.math.BigDecimal::compareTo))).collect(Collectors.toList());
-                    break;
-                case "price-high":
-                    all = all.stream().sorted(Comparator.comparing(Product::getPrice, Comparator.nullsLast(java.math.BigDecimal::compareTo)).reversed()).collect(Collectors.toList());
-                    break;
-                case "newest":
-                    all = all.stream().sorted(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))).collect(Collectors.toList());
-                    break;
-                case "oldest":
-                    all = all.stream().sorted(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))).collect(Collectors.toList());
-                    break;
-                case "createdAt,asc":
-                    all = all.stream().sorted(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))).collect(Collectors.toList());
-                    break;
-                case "createdAt,desc":
-                    all = all.stream().sorted(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))).collect(Collectors.toList());
-                    break;
-                default:
-                    all = all.stream().sorted(Comparator.comparing(Product::getName)).collect(Collectors.toList());
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", products);
+        response.put("nextCursor", next != null ? next.encode() : null);
+        response.put("hasNext", next != null);
+        return response;
+    }
+
+    /**
+     * Count matching products per category, brand and price band
+     * Uses the same filters as getProducts; price bands follow the catalog's price distribution.
+     *
+     * @param query Search query
+     * @param category Category filter
+     * @param price Price range filter (legacy bucket or price band key)
+     * @return Facet counts
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductFacetsDto getFacets(String query, String category, String price) {
+        ProductFilter filter = ProductFilter.of(query, category, price);
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            ProductSearchIndex.Matches matches = filter.getQuery() != null ? searchIndex.match(filter.getQuery()) : null;
+            return snapshot.facets(filter, matches);
+        }
+        // Catalog not loaded yet: count over the products matching the search query,
+        // price bands then follow the distribution of those products
+        List<ProductDto> matching = productRepository.searchActiveProducts(
+                filter.getQuery(), null, null, null, Pageable.unpaged()).getContent();
+        ProductFilter withoutQuery = new ProductFilter(null, filter.getCategory(), filter.getMinPrice(), filter.getMaxPrice());
+        return CatalogSnapshot.build(matching, 0).facets(withoutQuery, null);
+    }
+
+    /**
+     * Resolve product IDs against the catalog snapshot, keeping their order
+     *
+     * @param snapshot Catalog snapshot
+     * @param ids Product IDs
+     * @return Products still present in the snapshot
+     */
+    private List<ProductDto> toProducts(CatalogSnapshot snapshot, List<Long> ids) {
+        List<ProductDto> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductDto product = snapshot.get(id);
+            if (product != null) {
+                products.add(product);
             }
         }
-        int total = all.size();
-        List<ProductDto> products = all.stream()
-                .skip(page * size)
-                .limit(size)
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        Map<String, Object> result = new HashMap<>();
-        result.put("products", products);
-        result.put("total", total);
-        return result;
+        return products;
     }
 
     /**
@@ -283,18 +554,7 @@ public class ProductService {
      * @return ProductDto
      */
     private ProductDto convertToDto(Product product) {
-        return new ProductDto(
-                product.getId(),
-                product.getName(),
-                product.getDescription(),
-                product.getPrice(),
-                product.getImageUrl(),
-                product.getCategory(),
-                product.getBrand(),
-                product.getStockQuantity(),
-                product.isActive(),
-                product.getCreatedAt()
-        );
+        return productMapper.toDto(product);
     }
 
     /**
@@ -315,55 +575,4 @@ public class ProductService {
         product.setActive(productDto.isActive());
         return product;
     }
-
-    /**
-     * Save image file to uploads directory and return public URL
-     * @param file MultipartFile
-     * @return Public image URL
-     */
-    private String saveImage(MultipartFile file) {
-        try {
-            // Ensure uploads directory exists with proper permissions
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                boolean created = uploadDir.mkdirs();
-                if (!created) {
-                    throw new RuntimeException("Failed to create uploads directory");
-                }
-            }
-            
-            // Check if directory is writable
-            if (!uploadDir.canWrite()) {
-                throw new RuntimeException("Uploads directory is not writable");
-            }
-            
-            // Generate unique filename
-            String ext = getFileExtension(file.getOriginalFilename());
-            String filename = UUID.randomUUID() + (ext.isEmpty() ? "" : "." + ext);
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
-            
-            // Write file with proper error handling
-            try {
-                Files.write(filePath, file.getBytes());
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to write image file: " + e.getMessage(), e);
-            }
-            
-            // Return public URL path
-            return "/uploads/" + filename;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to save image: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Get file extension from filename
-     * @param filename Filename
-     * @return Extension (without dot)
-     */
-    private String getFileExtension(String filename) {
-        if (filename == null) return "";
-        int dot = filename.lastIndexOf('.');
-        return (dot >= 0) ? filename.substring(dot + 1) : "";
-    }
 } 
\ No newline at end of file
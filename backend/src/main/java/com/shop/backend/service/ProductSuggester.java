@@ -0,0 +1,524 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.SuggestionDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead suggestions for the storefront search box
+ * Completes a typed prefix with product names, brands and categories, most sold first
+ *
+ * Features:
+ * - Radix (path-compressed) trie over folded text (see VietnameseTextAnalyzer), keyed at every
+ *   word start so "iph" completes "Apple iPhone 15"
+ * - Every node keeps its top-k completions, so a lookup is a walk down the prefix
+ * - Weights are the products' sales counters (brands and categories sum their products)
+ * - Incremental updates fed by CatalogIndex after each product change or checkout
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSuggester {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_LENGTH = 32;
+    private static final int MAX_WORD_STARTS = 6;
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong((Entry e) -> e.weight).reversed()
+            .thenComparingInt(e -> e.text.length())
+            .thenComparing(e -> e.text)
+            .thenComparingLong(e -> e.serial);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> products = new HashMap<>();
+    private final Map<String, Entry> brands = new HashMap<>();
+    private final Map<String, Entry> categories = new HashMap<>();
+    private Node root = new Node();
+    private long serials;
+
+    /**
+     * Replace all suggestions
+     *
+     * @param source Active products
+     */
+    public void rebuild(Collection<ProductDto> source) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            brands.clear();
+            categories.clear();
+            root = new Node();
+            for (ProductDto product : source) {
+                addProduct(product, product.getSoldCount(), false);
+            }
+            for (Map<?, Entry> entries : List.of(products, brands, categories)) {
+                for (Entry entry : entries.values()) {
+                    for (String key : entry.keys) {
+                        insert(key, entry);
+                    }
+                }
+            }
+            computeTops(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply product changes, refreshing the sales of the changed products
+     *
+     * @param upserts Active products that were created or updated
+     * @param removedIds IDs of products that were deleted or deactivated
+     */
+    public void update(Collection<ProductDto> upserts, Collection<Long> removedIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : removedIds) {
+                removeProduct(id);
+            }
+            for (ProductDto product : upserts) {
+                removeProduct(product.getId());
+                addProduct(product, product.getSoldCount(), true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the best completions of a prefix
+     *
+     * @param prefix Typed text (case and accents are ignored)
+     * @param limit Maximum number of suggestions (at most MAX_SUGGESTIONS)
+     * @return Suggestions, best first
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (prefix.endsWith(" ")) {
+            key = key + " ";
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            if (node == null) {
+                return List.of();
+            }
+            List<Entry> matches;
+            if (key.length() <= MAX_KEY_LENGTH) {
+                matches = Arrays.asList(node.top);
+            } else {
+                // Keys are truncated: check the full text of everything under the node
+                matches = new ArrayList<>();
+                collect(node, key, matches);
+                matches.sort(RANKING);
+            }
+            List<SuggestionDto> result = new ArrayList<>();
+            for (Entry entry : matches) {
+                if (result.size() == Math.min(limit, MAX_SUGGESTIONS)) {
+                    break;
+                }
+                result.add(new SuggestionDto(entry.text, entry.type, entry.productId));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addProduct(ProductDto product, long sold, boolean index) {
+        Entry entry = newEntry("product", product.getName(), product.getId(), sold);
+        if (entry == null) {
+            return;
+        }
+        entry.brand = addToGroup(brands, "brand", product.getBrand(), sold, index);
+        entry.category = addToGroup(categories, "category", product.getCategory(), sold, index);
+        products.put(product.getId(), entry);
+        if (index) {
+            for (String key : entry.keys) {
+                insert(key, entry);
+                refresh(key);
+            }
+        }
+    }
+
+    private void removeProduct(Long id) {
+        Entry entry = products.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            remove(key, entry);
+        }
+        removeFromGroup(brands, entry.brand, entry.weight);
+        removeFromGroup(categories, entry.category, entry.weight);
+    }
+
+    private Entry addToGroup(Map<String, Entry> groups, String type, String text, long sold, boolean index) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Entry group = groups.get(key);
+        if (group == null) {
+            group = newEntry(type, text, null, 0);
+            groups.put(key, group);
+            if (index) {
+                for (String k : group.keys) {
+                    insert(k, group);
+                }
+            }
+        }
+        group.members++;
+        group.weight += sold;
+        if (index) {
+            group.keys.forEach(this::refresh);
+        }
+        return group;
+    }
+
+    private void removeFromGroup(Map<String, Entry> groups, Entry group, long sold) {
+        if (group == null) {
+            return;
+        }
+        group.members--;
+        group.weight -= sold;
+        if (group.members == 0) {
+            groups.remove(group.normalized);
+            for (String key : group.keys) {
+                remove(key, group);
+            }
+        } else {
+            group.keys.forEach(this::refresh);
+        }
+    }
+
+    private Entry newEntry(String type, String text, Long productId, long weight) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        Entry entry = new Entry(type, text.trim(), normalized, productId, serials++);
+        entry.weight = weight;
+        return entry;
+    }
+
+    // ---- Trie maintenance ----
+
+    /**
+     * Find the node whose subtree holds exactly the keys starting with a prefix
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private void insert(String key, Entry entry) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                leaf.addTerminal(entry);
+                node.addChild(leaf);
+                return;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge: node -> middle -> child
+                Node middle = new Node(child.label.substring(0, common));
+                node.removeChild(child.label.charAt(0));
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                middle.top = child.top;
+                node.addChild(middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.addTerminal(entry);
+    }
+
+    private void remove(String key, Entry entry) {
+        List<Node> path = path(key);
+        if (path == null) {
+            return;
+        }
+        Node last = path.get(path.size() - 1);
+        last.removeTerminal(entry);
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.terminals.length == 0 && node.children.length == 0) {
+                parent.removeChild(node.label.charAt(0));
+            } else if (node.terminals.length == 0 && node.children.length == 1) {
+                // Merge a pass-through node into its only child
+                Node child = node.children[0];
+                parent.removeChild(node.label.charAt(0));
+                child.label = node.label + child.label;
+                parent.addChild(child);
+            } else {
+                node.top = top(node);
+            }
+        }
+        root.top = top(root);
+    }
+
+    /**
+     * Recompute the top-k lists along a key after an entry on it was added or re-weighted
+     */
+    private void refresh(String key) {
+        List<Node> path = path(key);
+        if (path == null) {
+            return;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).top = top(path.get(i));
+        }
+    }
+
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return null;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    private void computeTops(Node node) {
+        for (Node child : node.children) {
+            computeTops(child);
+        }
+        node.top = top(node);
+    }
+
+    private static Entry[] top(Node node) {
+        if (node.terminals.length == 0 && node.children.length == 1) {
+            return node.children[0].top;
+        }
+        // Every source list is already ranked, so a k-way merge of their heads is enough
+        Entry[][] sources = new Entry[node.children.length + 1][];
+        for (int i = 0; i < node.children.length; i++) {
+            sources[i] = node.children[i].top;
+        }
+        Entry[] terminals = node.terminals.clone();
+        Arrays.sort(terminals, RANKING);
+        sources[node.children.length] = terminals;
+        int[] heads = new int[sources.length];
+        List<Entry> top = new ArrayList<>(MAX_SUGGESTIONS);
+        while (top.size() < MAX_SUGGESTIONS) {
+            int best = -1;
+            for (int i = 0; i < sources.length; i++) {
+                if (heads[i] < sources[i].length
+                        && (best < 0 || RANKING.compare(sources[i][heads[i]], sources[best][heads[best]]) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            Entry entry = sources[best][heads[best]++];
+            // An entry can reach a node through several of its keys; keep it once
+            if (!containsEntry(top, entry)) {
+                top.add(entry);
+            }
+        }
+        return top.toArray(new Entry[0]);
+    }
+
+    private static boolean containsEntry(List<Entry> entries, Entry entry) {
+        for (Entry e : entries) {
+            if (e == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collect(Node node, String key, List<Entry> matches) {
+        for (Entry entry : node.terminals) {
+            if (!matches.contains(entry) && entry.matches(key)) {
+                matches.add(entry);
+            }
+        }
+        for (Node child : node.children) {
+            collect(child, key, matches);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // ---- Text helpers ----
+
+    private static String normalize(String text) {
+        return String.join(" ", VietnameseTextAnalyzer.tokenize(text));
+    }
+
+    /**
+     * Trie keys of a normalized text: the suffixes starting at each of its first words, truncated
+     */
+    private static List<String> keysOf(String normalized) {
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start >= 0 && keys.size() < MAX_WORD_STARTS) {
+            String suffix = normalized.substring(start);
+            String key = suffix.length() > MAX_KEY_LENGTH ? suffix.substring(0, MAX_KEY_LENGTH) : suffix;
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        return keys;
+    }
+
+    /**
+     * A completion: one product name, brand or category
+     */
+    private static final class Entry {
+        private final String type;
+        private final String text;
+        private final String normalized;
+        private final Long productId;
+        private final long serial;
+        private final List<String> keys;
+        private long weight;
+        private int members;
+        private Entry brand;
+        private Entry category;
+
+        private Entry(String type, String text, String normalized, Long productId, long serial) {
+            this.type = type;
+            this.text = text;
+            this.normalized = normalized;
+            this.productId = productId;
+            this.serial = serial;
+            this.keys = keysOf(normalized);
+        }
+
+        private boolean matches(String prefix) {
+            return normalized.startsWith(prefix) || normalized.contains(" " + prefix);
+        }
+    }
+
+    /**
+     * Radix trie node: the edge label leading to it, children ordered by first label char,
+     * the entries whose key ends here and the precomputed top completions below it
+     */
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        private String label;
+        private char[] firstChars = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] terminals = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node() {
+            this("");
+        }
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            int index = Arrays.binarySearch(firstChars, first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private void addChild(Node child) {
+            char first = child.label.charAt(0);
+            int index = -Arrays.binarySearch(firstChars, first) - 1;
+            char[] newFirstChars = new char[firstChars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, newFirstChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firstChars, index, newFirstChars, index + 1, firstChars.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newFirstChars[index] = first;
+            newChildren[index] = child;
+            firstChars = newFirstChars;
+            children = newChildren;
+        }
+
+        private void removeChild(char first) {
+            int index = Arrays.binarySearch(firstChars, first);
+            if (index < 0) {
+                return;
+            }
+            char[] newFirstChars = new char[firstChars.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, newFirstChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firstChars, index + 1, newFirstChars, index, firstChars.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            firstChars = newFirstChars;
+            children = newChildren;
+        }
+
+        private void addTerminal(Entry entry) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = entry;
+        }
+
+        private void removeTerminal(Entry entry) {
+            for (int i = 0; i < terminals.length; i++) {
+                if (terminals[i] == entry) {
+                    Entry[] newTerminals = new Entry[terminals.length - 1];
+                    System.arraycopy(terminals, 0, newTerminals, 0, i);
+                    System.arraycopy(terminals, i + 1, newTerminals, i, terminals.length - i - 1);
+                    terminals = newTerminals;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductBulkUpdateRequest;
+import com.shop.backend.dto.ProductBulkUpdateResultDto;
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.entity.Product;
+import com.shop.backend.repository.ProductJdbcRepository;
+import com.shop.backend.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Service for partial and bulk product updates
+ * Writes through ProductJdbcRepository, so only the changed columns are sent and no entity is loaded first
+ *
+ * Features:
+ * - PATCH of a single product: only the fields present in the request are updated
+ * - Bulk price/stock changes (absolute values or deltas) in a few batched UPDATE statements
+ * - All-or-nothing: one transaction, rolled back if any product is missing or would become invalid
+ * - Same rules as updateProduct (Product bean constraints, non-negative stock)
+ * - Product caches and the catalog refresh through ProductChangedEvent after commit
+ * - A PATCH pointing imageUrl at an uploaded image queues its resized copies (ProductImageStoredEvent)
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ProductUpdateService {
+
+    private static final int MAX_BULK_ITEMS = 10000;
+    private static final int MAX_REPORTED_IDS = 20;
+    /** PATCH field (ProductDto name) to column */
+    private static final Map<String, String> PATCH_COLUMNS = Map.of(
+            "name", "name",
+            "description", "description",
+            "price", "price",
+            "stockQuantity", "stock_quantity",
+            "imageUrl", "image_url",
+            "category", "category",
+            "brand", "brand",
+            "active", "is_active");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("name", "price", "stockQuantity", "category", "active");
+
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Update some fields of a product
+     * Fields missing from the request keep their value; a null value clears an optional field.
+     *
+     * @param id Product ID
+     * @param changes Field name (as in ProductDto) to new value
+     * @return Updated product, or empty if the product does not exist
+     * @throws IllegalArgumentException if a field is unknown or a value is invalid
+     */
+    public Optional<ProductDto> patchProduct(Long id, Map<String, Object> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String field = change.getKey();
+            String column = PATCH_COLUMNS.get(field);
+            if (column == null) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+            Object value = convert(field, change.getValue());
+            validate(field, value);
+            columns.put(column, value);
+        }
+        if (productJdbcRepository.updateColumns(id, columns) == 0) {
+            return Optional.empty();
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
+        Object imageUrl = columns.get("image_url");
+        if (imageUrl instanceof String && ((String) imageUrl).startsWith(ImageStorageService.URL_PREFIX)) {
+            eventPublisher.publishEvent(new ProductImageStoredEvent(id, (String) imageUrl));
+        }
+        // The persistence context has not seen this product yet, so this reads the new row
+        return productRepository.findById(id).map(productMapper::toDto);
+    }
+
+    /**
+     * Apply price/stock changes to many products
+     * Items are grouped by kind (set price, add to price, set stock, add to stock) and each kind
+     * runs as one JDBC batch, so absolute values are applied before deltas.
+     *
+     * @param request Items to apply
+     * @return Item, product and statement counts
+     * @throws IllegalArgumentException if an item is invalid, or a product is missing or would get
+     *         a non-positive price or a negative stock (nothing is applied then)
+     */
+    public ProductBulkUpdateResultDto bulkUpdate(ProductBulkUpdateRequest request) {
+        long start = System.currentTimeMillis();
+        List<ProductBulkUpdateRequest.Item> items = request == null ? null : request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No items to update");
+        }
+        if (items.size() > MAX_BULK_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_ITEMS + " items per request");
+        }
+        for (int i = 0; i < items.size(); i++) {
+            validate(i, items.get(i));
+        }
+
+        // Same lock order as every other bulk update, to avoid deadlocks between them
+        List<ProductBulkUpdateRequest.Item> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparing(ProductBulkUpdateRequest.Item::getProductId));
+
+        Changes<BigDecimal> setPrices = new Changes<>();
+        Changes<BigDecimal> priceDeltas = new Changes<>();
+        Changes<Integer> setStock = new Changes<>();
+        Changes<Integer> stockDeltas = new Changes<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (ProductBulkUpdateRequest.Item item : sorted) {
+            Long id = item.getProductId();
+            productIds.add(id);
+            setPrices.add(id, item.getPrice());
+            priceDeltas.add(id, item.getPriceDelta());
+            setStock.add(id, item.getStockQuantity());
+            stockDeltas.add(id, item.getStockDelta());
+        }
+
+        Set<Long> failed = new TreeSet<>();
+        int statements = setPrices.apply(productJdbcRepository::setPrices, failed)
+                + priceDeltas.apply(productJdbcRepository::addToPrices, failed)
+                + setStock.apply(productJdbcRepository::setStockQuantities, failed)
+                + stockDeltas.apply(productJdbcRepository::addToStockQuantities, failed);
+        if (!failed.isEmpty()) {
+            // Thrown inside the transaction: every statement above is rolled back
+            throw new IllegalArgumentException("No changes applied. Products not found, or price would not stay"
+                    + " positive or stock would become negative: " + failed.stream()
+                    .limit(MAX_REPORTED_IDS)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", "))
+                    + (failed.size() > MAX_REPORTED_IDS ? " (" + failed.size() + " in total)" : ""));
+        }
+
+        eventPublisher.publishEvent(ProductChangedEvent.of(productIds));
+        long duration = System.currentTimeMillis() - start;
+        log.info("Bulk product update: {} items, {} products, {} statements in {} ms",
+                items.size(), productIds.size(), statements, duration);
+        return new ProductBulkUpdateResultDto(items.size(), productIds.size(), statements, duration);
+    }
+
+    private void validate(int index, ProductBulkUpdateRequest.Item item) {
+        String prefix = "Item " + (index + 1) + ": ";
+        if (item == null || item.getProductId() == null) {
+            throw new IllegalArgumentException(prefix + "productId is required");
+        }
+        if (item.getPrice() != null && item.getPriceDelta() != null) {
+            throw new IllegalArgumentException(prefix + "set either price or priceDelta");
+        }
+        if (item.getStockQuantity() != null && item.getStockDelta() != null) {
+            throw new IllegalArgumentException(prefix + "set either stockQuantity or stockDelta");
+        }
+        if (item.getPrice() == null && item.getPriceDelta() == null
+                && item.getStockQuantity() == null && item.getStockDelta() == null) {
+            throw new IllegalArgumentException(prefix + "nothing to update");
+        }
+        if (item.getPrice() != null && item.getPrice().signum() <= 0) {
+            throw new IllegalArgumentException(prefix + "Price must be positive");
+        }
+        if (item.getStockQuantity() != null && item.getStockQuantity() < 0) {
+            throw new IllegalArgumentException(prefix + "Stock quantity cannot be negative");
+        }
+    }
+
+    /**
+     * Convert a JSON value to the type of the product field
+     */
+    private static Object convert(String field, Object value) {
+        if (value == null) {
+            if (REQUIRED_FIELDS.contains(field)) {
+                throw new IllegalArgumentException(field + " cannot be null");
+            }
+            return null;
+        }
+        switch (field) {
+            case "price":
+                return toBigDecimal(field, value);
+            case "stockQuantity":
+                try {
+                    return toBigDecimal(field, value).intValueExact();
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Invalid " + field + ": " + value);
+                }
+            case "active":
+                if (!(value instanceof Boolean)) {
+                    throw new IllegalArgumentException("Invalid " + field + ": " + value);
+                }
+                return value;
+            case "description":
+                return requireString(field, value);
+            default:
+                return requireString(field, value).trim();
+        }
+    }
+
+    private static BigDecimal toBigDecimal(String field, Object value) {
+        if (!(value instanceof Number) && !(value instanceof String)) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static String requireString(String field, Object value) {
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private void validate(String field, Object value) {
+        if ("stockQuantity".equals(field)) {
+            // Same rule as createProduct / updateProduct
+            if ((Integer) value < 0) {
+                throw new IllegalArgumentException("Stock quantity cannot be negative");
+            }
+            return;
+        }
+        Set<ConstraintViolation<Product>> violations = validator.validateValue(Product.class, field, value);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Rows for one statement kind: product IDs and their values, in lock order
+     */
+    private static final class Changes<T> {
+        private final List<Long> ids = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        private void add(Long id, T value) {
+            if (value != null) {
+                ids.add(id);
+                values.add(value);
+            }
+        }
+
+        /**
+         * Run the batch, collect products it did not update
+         *
+         * @return Number of statements executed (0 or 1)
+         */
+        private int apply(BiFunction<List<Long>, List<T>, int[]> statement, Set<Long> failed) {
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int[] counts = statement.apply(ids, values);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    failed.add(ids.get(i));
+                }
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ProductDto;
+import com.shop.backend.dto.RecommendationBatchResultDto;
+import com.shop.backend.dto.RecommendationDto;
+import com.shop.backend.entity.UserRecommendation;
+import com.shop.backend.repository.OrderItemRepository;
+import com.shop.backend.repository.OrderRepository;
+import com.shop.backend.repository.ProductRepository;
+import com.shop.backend.repository.UserRecommendationJdbcRepository;
+import com.shop.backend.repository.UserRecommendationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for personalized product recommendations ("because you bought ...")
+ * Recommendations are precomputed by a background batch and served with one primary-key lookup.
+ *
+ * Features:
+ * - Item-to-item scoring: each purchased product votes for its frequently-bought-together products
+ *   (ProductAssociations), weighted by its rank there and by how recently it was bought
+ * - Already purchased products are never recommended
+ * - Parallel batch over buyers in chunks: each chunk reads its users' history in one query and
+ *   writes its rows in one upsert
+ * - Nightly schedule (app.recommendations.cron, "-" to disable) and on-demand runs
+ * - Best sellers for users without recommendations yet
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationService {
+
+    public static final int MAX_RECOMMENDATIONS = 20;
+    private static final int USERS_PER_CHUNK = 500;
+    private static final double HALF_LIFE_DAYS = 90;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRecommendationRepository recommendationRepository;
+    private final UserRecommendationJdbcRepository recommendationJdbcRepository;
+    private final ProductAssociations associations;
+    private final ProductCache productCache;
+    private final CatalogIndex catalogIndex;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.recommendations.threads:4}")
+    private int threads;
+
+    /**
+     * Get the recommendations of a user
+     * Products that became inactive or ran out of stock since the batch are skipped.
+     *
+     * @param userId User ID
+     * @param limit Maximum number of products (at most MAX_RECOMMENDATIONS)
+     * @return Map with recommendations, personalized (false when best sellers are returned)
+     *         and computedAt
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRecommendations(Long userId, int limit) {
+        int max = Math.max(0, Math.min(limit, MAX_RECOMMENDATIONS));
+        List<RecommendationDto> recommendations = new ArrayList<>(max);
+        Optional<UserRecommendation> row = recommendationRepository.findById(userId);
+        if (row.isPresent()) {
+            for (String item : row.get().getItems().split(",")) {
+                if (recommendations.size() == max) {
+                    break;
+                }
+                int colon = item.indexOf(':');
+                Optional<ProductDto> product = productCache.get(Long.valueOf(item.substring(0, colon)))
+                        .filter(p -> p.isActive() && p.getStockQuantity() != null && p.getStockQuantity() > 0);
+                if (product.isPresent()) {
+                    Long because = Long.valueOf(item.substring(colon + 1));
+                    recommendations.add(new RecommendationDto(product.get(), because,
+                            productCache.get(because).map(ProductDto::getName).orElse(null)));
+                }
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("personalized", !recommendations.isEmpty());
+        response.put("computedAt", row.map(UserRecommendation::getComputedAt).orElse(null));
+        if (recommendations.isEmpty()) {
+            bestSellers(max).forEach(product -> recommendations.add(new RecommendationDto(product, null, null)));
+        }
+        response.put("recommendations", recommendations);
+        return response;
+    }
+
+    private List<ProductDto> bestSellers(int limit) {
+        CatalogSnapshot snapshot = catalogIndex.snapshot();
+        if (snapshot != null) {
+            return snapshot.query(ProductFilter.of(null, null, null), null, CatalogSort.BESTSELLING, 0, limit)
+                    .getProducts();
+        }
+        List<ProductDto> products = new ArrayList<>();
+        for (ProductDto product : productRepository.findBestSellingDtos(PageRequest.of(0, limit))) {
+            if (product.isActive()) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Nightly recommendation batch
+     */
+    @Scheduled(cron = "${app.recommendations.cron:0 30 3 * * *}")
+    public void scheduledBatch() {
+        try {
+            runBatch();
+        } catch (IllegalStateException e) {
+            log.info("Recommendation batch skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the recommendations of every user who placed an order
+     * Chunks of users are scored in parallel; rows not refreshed by this run are removed at the end,
+     * unless a chunk failed.
+     *
+     * @return Batch statistics
+     * @throws IllegalStateException if a batch is already running or frequently-bought-together
+     *         data is not loaded yet
+     */
+    public RecommendationBatchResultDto runBatch() {
+        if (!associations.isLoaded()) {
+            throw new IllegalStateException("Frequently bought together data is not loaded yet");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("The recommendation batch is already running");
+        }
+        AtomicInteger threadNumbers = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads),
+                task -> new Thread(task, "recommendations-" + threadNumbers.incrementAndGet()));
+        try {
+            long start = System.currentTimeMillis();
+            // Rows of this run carry exactly this time; older rows are stale afterwards
+            LocalDateTime computedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            long users = 0;
+            long after = 0;
+            while (true) {
+                List<Long> userIds = orderRepository.findBuyerIdsAfter(after, PageRequest.of(0, USERS_PER_CHUNK));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                users += userIds.size();
+                after = userIds.get(userIds.size() - 1);
+                chunks.add(CompletableFuture.supplyAsync(() -> scoreChunk(userIds, computedAt), pool));
+            }
+            long withRecommendations = 0;
+            for (CompletableFuture<Integer> chunk : chunks) {
+                withRecommendations += chunk.join();
+            }
+            int removed = recommendationRepository.deleteComputedBefore(computedAt);
+
+            long duration = System.currentTimeMillis() - start;
+            log.info("Recommendation batch: {} users, {} with recommendations, {} chunks, {} stale rows removed in {} ms",
+                    users, withRecommendations, chunks.size(), removed, duration);
+            return new RecommendationBatchResultDto(users, withRecommendations, chunks.size(), removed, duration);
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Score one chunk of users and write their rows
+     *
+     * @return Number of users with recommendations
+     */
+    private int scoreChunk(List<Long> userIds, LocalDateTime computedAt) {
+        Map<Long, Map<Long, Double>> purchases = new HashMap<>();
+        for (Object[] row : orderItemRepository.findPurchasesByUserIds(userIds)) {
+            Long userId = ((Number) row[0]).longValue();
+            Long productId = ((Number) row[1]).longValue();
+            double ageDays = Math.max(0, Duration.between((LocalDateTime) row[2], computedAt).toHours() / 24.0);
+            purchases.computeIfAbsent(userId, id -> new HashMap<>())
+                    .merge(productId, Math.pow(0.5, ageDays / HALF_LIFE_DAYS), Double::sum);
+        }
+
+        List<UserRecommendation> rows = new ArrayList<>();
+        purchases.forEach((userId, bought) -> {
+            String items = score(bought);
+            if (!items.isEmpty()) {
+                rows.add(new UserRecommendation(userId, items, computedAt));
+            }
+        });
+        recommendationJdbcRepository.upsertAll(rows);
+        return rows.size();
+    }
+
+    /**
+     * Score the candidates of one user
+     *
+     * @param bought Purchased product IDs with their recency weight
+     * @return Encoded recommendations ("productId:becauseProductId,..."), best first; empty if none
+     */
+    private String score(Map<Long, Double> bought) {
+        Map<Long, double[]> candidates = new HashMap<>();
+        bought.forEach((productId, weight) -> {
+            long[] related = associations.related(productId);
+            for (int rank = 0; rank < related.length; rank++) {
+                if (bought.containsKey(related[rank])) {
+                    continue;
+                }
+                // [score, best single contribution, product it came from]
+                double[] candidate = candidates.computeIfAbsent(related[rank], id -> new double[3]);
+                double contribution = weight * (ProductAssociations.MAX_RELATED - rank) / ProductAssociations.MAX_RELATED;
+                candidate[0] += contribution;
+                if (contribution > candidate[1]) {
+                    candidate[1] = contribution;
+                    candidate[2] = productId;
+                }
+            }
+        });
+
+        List<Map.Entry<Long, double[]>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort((a, b) -> {
+            int cmp = Double.compare(b.getValue()[0], a.getValue()[0]);
+            return cmp != 0 ? cmp : Long.compare(a.getKey(), b.getKey());
+        });
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < ranked.size() && i < MAX_RECOMMENDATIONS; i++) {
+            Map.Entry<Long, double[]> entry = ranked.get(i);
+            items.append(i == 0 ? "" : ",").append(entry.getKey()).append(':').append((long) entry.getValue()[2]);
+        }
+        return items.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.shop.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token of the delta catalog sync
+ * Holds the position reached in (updated_at, id) order plus the base time: the time since which the
+ * client needs deletions reported. The base is the start position of an incremental sync, or the time
+ * the first page of a full sync was read; it stays the same for all pages of one sync, so tombstone
+ * retention is checked against it and never against the position of a row.
+ *
+ * The token is opaque to clients: URL-safe Base64 without padding.
+ */
+final class SyncToken {
+
+    private static final String INVALID = "Invalid sync token";
+    private static final String PREFIX = "sync";
+
+    private final LocalDateTime since;
+    private final long sinceId;
+    private final LocalDateTime base;
+
+    SyncToken(LocalDateTime since, long sinceId, LocalDateTime base) {
+        this.since = since;
+        this.sinceId = sinceId;
+        this.base = base;
+    }
+
+    /**
+     * Decode a token received from a client
+     *
+     * @param token Encoded token
+     * @return Decoded token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static SyncToken decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\n", -1);
+            if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+                throw new IllegalArgumentException(INVALID);
+            }
+            return new SyncToken(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]), LocalDateTime.parse(parts[3]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(INVALID);
+        } catch (IllegalArgumentException e) {
+            // Bad Base64 or NumberFormatException
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    /**
+     * Encode the token for a client
+     *
+     * @return Opaque token
+     */
+    String encode() {
+        String value = PREFIX + "\n" + since + "\n" + sinceId + "\n" + base;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime getSince() {
+        return since;
+    }
+
+    long getSinceId() {
+        return sinceId;
+    }
+
+    LocalDateTime getBase() {
+        return base;
+    }
+}
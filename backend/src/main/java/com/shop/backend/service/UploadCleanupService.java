@@ -0,0 +1,199 @@
+package com.shop.backend.service;
+
+import com.shop.backend.dto.ImageVariants;
+import com.shop.backend.dto.UploadSweepResultDto;
+import com.shop.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sweeper removing files of the uploads directory that no product references anymore
+ * (images replaced by an update or left by a deleted product, their resized copies, abandoned temp files)
+ *
+ * Features:
+ * - Referenced images read from products.image_url in pages of PAGE_SIZE
+ * - Directory streamed with Files.newDirectoryStream, never listed into memory
+ * - Grace period (app.uploads.gc.grace-hours): recent files are kept, so an image uploaded for a product
+ *   that is not saved yet is never removed
+ * - Dry run: reports what would be removed
+ * - Nightly schedule (app.uploads.gc.cron, "-" to disable; app.uploads.gc.dry-run for report-only runs)
+ *   and on-demand runs
+ * - Cumulative statistics: runs, files deleted, bytes reclaimed, last result
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadCleanupService {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ImageStorageService imageStorage;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalFilesDeleted = new AtomicLong();
+    private final AtomicLong totalBytesReclaimed = new AtomicLong();
+    private volatile UploadSweepResultDto lastResult;
+    private volatile LocalDateTime lastRunAt;
+
+    @Value("${app.uploads.gc.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${app.uploads.gc.dry-run:false}")
+    private boolean scheduledDryRun;
+
+    /**
+     * Nightly upload sweep
+     */
+    @Scheduled(cron = "${app.uploads.gc.cron:0 0 5 * * *}")
+    public void scheduledSweep() {
+        try {
+            sweep(scheduledDryRun);
+        } catch (IllegalStateException e) {
+            log.info("Upload sweep skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Remove the unreferenced files older than the grace period
+     *
+     * @param dryRun Only report what would be removed
+     * @return Sweep statistics
+     * @throws IllegalStateException if a sweep is already running
+     * @throws RuntimeException if the uploads directory cannot be read
+     */
+    public UploadSweepResultDto sweep(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("The upload sweep is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+            // Loaded before the directory is read: an image referenced later is younger than the cutoff
+            Set<String> referenced = loadReferencedImages();
+
+            UploadSweepResultDto result = new UploadSweepResultDto();
+            result.setDryRun(dryRun);
+            result.setReferencedImages(referenced.size());
+            List<Path> orphans = new ArrayList<>();
+            Map<Path, Long> sizes = new HashMap<>();
+            Path dir = Paths.get(ImageStorageService.UPLOAD_DIR);
+            if (Files.isDirectory(dir)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                    for (Path file : files) {
+                        BasicFileAttributes attributes =
+                                Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (!attributes.isRegularFile()) {
+                            continue;
+                        }
+                        result.setScannedFiles(result.getScannedFiles() + 1);
+                        if (referenced.contains(ImageVariants.baseName(file.getFileName().toString()))) {
+                            continue;
+                        }
+                        if (attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                            result.setRecentFiles(result.getRecentFiles() + 1);
+                            continue;
+                        }
+                        orphans.add(file);
+                        sizes.put(file, attributes.size());
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to read uploads directory: " + e.getMessage(), e);
+                }
+            }
+
+            // Placeholders first: the image pipeline treats copies without a placeholder as not made yet
+            orphans.sort(Comparator.comparing(file -> !file.getFileName().toString().contains("-lqip.")));
+            for (Path file : orphans) {
+                long size = sizes.get(file);
+                result.setOrphanedFiles(result.getOrphanedFiles() + 1);
+                result.setOrphanedBytes(result.getOrphanedBytes() + size);
+                if (dryRun) {
+                    continue;
+                }
+                try {
+                    if (imageStorage.deleteIfUnusedSince(file, cutoff)) {
+                        result.setDeletedFiles(result.getDeletedFiles() + 1);
+                        result.setBytesReclaimed(result.getBytesReclaimed() + size);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not delete unreferenced upload {}: {}", file, e.getMessage());
+                }
+            }
+
+            result.setDurationMs(System.currentTimeMillis() - start);
+            runs.incrementAndGet();
+            totalFilesDeleted.addAndGet(result.getDeletedFiles());
+            totalBytesReclaimed.addAndGet(result.getBytesReclaimed());
+            lastResult = result;
+            lastRunAt = LocalDateTime.now();
+            log.info("Upload sweep{}: {} files scanned, {} unreferenced ({} bytes), {} deleted ({} bytes reclaimed),"
+                            + " {} recent kept in {} ms", dryRun ? " (dry run)" : "", result.getScannedFiles(),
+                    result.getOrphanedFiles(), result.getOrphanedBytes(), result.getDeletedFiles(),
+                    result.getBytesReclaimed(), result.getRecentFiles(), result.getDurationMs());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Names of the uploaded images products reference (without extension, see ImageVariants.baseName)
+     */
+    private Set<String> loadReferencedImages() {
+        Set<String> referenced = new HashSet<>();
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = productRepository.findUploadedImagesAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+            for (Object[] row : rows) {
+                Path file = imageStorage.resolve((String) row[1]);
+                if (file != null) {
+                    referenced.add(ImageVariants.baseName(file.getFileName().toString()));
+                }
+            }
+            if (rows.size() < PAGE_SIZE) {
+                return referenced;
+            }
+            afterId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        }
+    }
+
+    /**
+     * Get the sweeper statistics
+     *
+     * @return Map with runs, totalFilesDeleted, totalBytesReclaimed, lastRunAt and lastResult
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("runs", runs.get());
+        stats.put("totalFilesDeleted", totalFilesDeleted.get());
+        stats.put("totalBytesReclaimed", totalBytesReclaimed.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastResult", lastResult);
+        return stats;
+    }
+}
@@ -0,0 +1,85 @@
+package com.shop.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Text analyzer for product search
+ * Folds Vietnamese diacritics so that "dien thoai" matches "điện thoại"
+ *
+ * Features:
+ * - Lower-casing
+ * - Diacritic removal (đ/Đ included) through a precomputed lookup table
+ * - Tokenization on anything that is not a letter or a digit
+ */
+public final class VietnameseTextAnalyzer {
+
+    /** Folded form of every char below U+1F00 (covers Latin-1, Latin Extended and Vietnamese) */
+    private static final char[] FOLD_TABLE = new char[0x1F00];
+
+    static {
+        for (char c = 0; c < FOLD_TABLE.length; c++) {
+            String lower = String.valueOf(c).toLowerCase(Locale.ROOT);
+            String stripped = Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{Mn}+", "");
+            FOLD_TABLE[c] = stripped.length() == 1 ? stripped.charAt(0) : (lower.length() == 1 ? lower.charAt(0) : c);
+        }
+        FOLD_TABLE['đ'] = 'd';
+        FOLD_TABLE['Đ'] = 'd';
+    }
+
+    private VietnameseTextAnalyzer() {
+    }
+
+    /**
+     * Lower-case a text and strip its diacritics
+     *
+     * @param text Input text
+     * @return Folded text, empty string for null input
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Split a text into folded search tokens
+     *
+     * @param text Input text
+     * @return Tokens in text order (may contain duplicates)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static char fold(char c) {
+        if (c < FOLD_TABLE.length) {
+            return FOLD_TABLE[c];
+        }
+        return Character.toLowerCase(c);
+    }
+}